@@ -0,0 +1,93 @@
+package com.ppi.utility.importer.service;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Aggregated outcome of a batch import, broken down per file and per sheet.
+ *
+ * @param files             One entry per input file, in the order the files were submitted.
+ * @param duplicateRows     Rows whose key had already been seen earlier in the batch (see DuplicateDetector).
+ * @param duplicatesDropped True if those rows were left out of the import, false if they were only counted.
+ * @param elapsedMs         Wall-clock time of the whole batch.
+ */
+public record BatchImportResult(List<FileResult> files, int duplicateRows, boolean duplicatesDropped, long elapsedMs) {
+
+    public int totalRowsRead() {
+        return files.stream().mapToInt(FileResult::rowsRead).sum();
+    }
+
+    public int totalRowsWritten() {
+        return files.stream().mapToInt(FileResult::rowsWritten).sum();
+    }
+
+    public WriteCounts totalWritten() {
+        return files.stream().map(FileResult::written).reduce(WriteCounts.NONE, WriteCounts::plus);
+    }
+
+    public long failedSheetCount() {
+        return files.stream().flatMap(file -> file.sheets().stream()).filter(SheetResult::failed).count();
+    }
+
+    /**
+     * One-line summary suitable for the UI status label.
+     */
+    public String summary() {
+        WriteCounts written = totalWritten();
+        String breakdown = written.updated() + written.skipped() > 0 ? " (" + written + ")" : "";
+        String duplicates = duplicateRows > 0
+                ? "; " + duplicateRows + " duplicate row(s) " + (duplicatesDropped ? "skipped" : "found") : "";
+        return "Imported " + totalRowsWritten() + " records" + breakdown + " from " + files.size() + " file(s) in "
+                + elapsedMs + " ms" + duplicates
+                + (failedSheetCount() > 0 ? " (" + failedSheetCount() + " sheet(s) failed)." : ".");
+    }
+
+    /**
+     * Outcome of one input file.
+     *
+     * @param file   The imported file.
+     * @param sheets One entry per sheet, in workbook order.
+     * @param error  Set when the file could not be opened or failed validation; sheets is then empty.
+     */
+    public record FileResult(File file, List<SheetResult> sheets, String error) {
+
+        public int rowsRead() {
+            return sheets.stream().mapToInt(SheetResult::rowsRead).sum();
+        }
+
+        public int rowsWritten() {
+            return sheets.stream().mapToInt(SheetResult::rowsWritten).sum();
+        }
+
+        public WriteCounts written() {
+            return sheets.stream().map(SheetResult::written).reduce(WriteCounts.NONE, WriteCounts::plus);
+        }
+
+        public boolean failed() {
+            return error != null || sheets.stream().anyMatch(SheetResult::failed);
+        }
+    }
+
+    /**
+     * Outcome of one sheet.
+     *
+     * @param sheetName   The sheet name.
+     * @param rowsRead    Data rows parsed from the sheet, less duplicates dropped by the duplicate check.
+     * @param written     Rows committed to CASE_MASTER_TBL, by outcome; chunks committed before a failure are kept.
+     * @param elapsedMs   Wall-clock time from the start of parsing until the last chunk was written.
+     * @param error       The failure message, or null when the sheet was imported completely.
+     */
+    public record SheetResult(String sheetName, int rowsRead, WriteCounts written, long elapsedMs, String error) {
+
+        /**
+         * @return Rows handed to the database, including rows the merge mode skipped as duplicates.
+         */
+        public int rowsWritten() {
+            return written.total();
+        }
+
+        public boolean failed() {
+            return error != null;
+        }
+    }
+}
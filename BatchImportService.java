@@ -0,0 +1,283 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Service class responsible for importing many Excel files, and every sheet within them, concurrently.
+ * <p>
+ * Each sheet is parsed on its own virtual thread; the number of sheets being parsed at once is capped
+ * by {@code importer.batch.parse-concurrency}. Parsed rows are grouped into chunks and handed to a
+ * fixed pool of {@code importer.batch.writer-concurrency} writer threads, each chunk committed in its
+ * own transaction, so DB load is bounded independently of parsing (keep it at or below the
+ * connection pool size).
+ */
+@Service
+public class BatchImportService {
+
+    private final ExcelService excelService;
+    private final CaseMasterBatchWriter caseMasterBatchWriter;
+    private final ImportMetrics importMetrics;
+    private final DuplicateDetector duplicateDetector;
+    private final Semaphore parsePermits;
+    private final int maxPendingChunks;
+    private final ExecutorService sheetExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService writerExecutor;
+
+    @Autowired
+    public BatchImportService(ExcelService excelService,
+                              CaseMasterBatchWriter caseMasterBatchWriter,
+                              ImportMetrics importMetrics,
+                              DuplicateDetector duplicateDetector,
+                              @Value("${importer.batch.parse-concurrency:4}") int parseConcurrency,
+                              @Value("${importer.batch.writer-concurrency:4}") int writerConcurrency,
+                              @Value("${importer.batch.max-pending-chunks:2}") int maxPendingChunks) {
+        this.excelService = excelService;
+        this.caseMasterBatchWriter = caseMasterBatchWriter;
+        this.importMetrics = importMetrics;
+        this.duplicateDetector = duplicateDetector;
+        this.parsePermits = new Semaphore(Math.max(1, parseConcurrency));
+        this.maxPendingChunks = Math.max(1, maxPendingChunks);
+        this.writerExecutor = Executors.newFixedThreadPool(Math.max(1, writerConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "import-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports every sheet of every given file. Directories are expanded to the .xlsx/.xls/.csv/.tsv files they contain.
+     * Failures are recorded per file or per sheet and never abort the rest of the batch.
+     * All files share one duplicate check, so a row repeated in a later file is caught as well.
+     *
+     * @param inputs Files and/or directories to import.
+     * @return The aggregated result, per file and per sheet.
+     */
+    public BatchImportResult importFiles(Collection<File> inputs) {
+        long start = System.nanoTime();
+
+        List<File> files = expand(inputs);
+        DuplicateDetector.Check duplicateCheck = duplicateDetector.start("batch");
+        List<CompletableFuture<BatchImportResult.FileResult>> fileFutures = new ArrayList<>();
+        for (File file : files) {
+            fileFutures.add(CompletableFuture.supplyAsync(
+                    ImportJob.propagate(() -> importFile(file, duplicateCheck)), sheetExecutor));
+        }
+
+        List<BatchImportResult.FileResult> fileResults = new ArrayList<>();
+        for (CompletableFuture<BatchImportResult.FileResult> future : fileFutures) {
+            fileResults.add(future.join());
+        }
+        duplicateCheck.finish();
+        return new BatchImportResult(fileResults, duplicateCheck.getDuplicates(), duplicateCheck.isDropping(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Lists the importable files among the inputs; directories are scanned one level deep.
+     */
+    public static List<File> expand(Collection<File> inputs) {
+        List<File> files = new ArrayList<>();
+        for (File input : inputs) {
+            if (input.isDirectory()) {
+                File[] children = input.listFiles((dir, name) -> isImportable(name));
+                if (children != null) {
+                    Arrays.sort(children); // Deterministic order for results
+                    files.addAll(List.of(children));
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return True for the file types the importer reads (.xlsx, .xls, .csv, .tsv), except the importer's
+     *         own validation reports ({@code .errors.}) and dry-run outputs ({@code .dryrun.}).
+     */
+    public static boolean isImportable(String fileName) {
+        String lowerName = fileName.toLowerCase();
+        if (lowerName.contains(".errors.") || lowerName.contains(".dryrun.")) {
+            return false;
+        }
+        return lowerName.endsWith(".xlsx") || lowerName.endsWith(".xls")
+                || lowerName.endsWith(".csv") || lowerName.endsWith(".tsv");
+    }
+
+    /**
+     * Imports all sheets of one file concurrently, each on its own virtual thread.
+     */
+    private BatchImportResult.FileResult importFile(File file, DuplicateDetector.Check duplicateCheck) {
+        if (ImportJob.isCancelled()) {
+            return new BatchImportResult.FileResult(file, List.of(), "Cancelled before the file was started.");
+        }
+        List<String> sheetNames;
+        try {
+            sheetNames = excelService.getSheetNames(file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to open " + file.getName() + ": " + e.getMessage());
+            return new BatchImportResult.FileResult(file, List.of(), e.getMessage());
+        }
+
+        if (excelService.isValidateBeforeImport()) {
+            try {
+                ValidationReport report = excelService.validateForImport(file);
+                if (!report.valid()) {
+                    return new BatchImportResult.FileResult(file, List.of(), report.summary()); // Nothing was written
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Unable to validate " + file.getName() + ": " + e.getMessage());
+                return new BatchImportResult.FileResult(file, List.of(), e.getMessage());
+            }
+        }
+
+        List<CompletableFuture<BatchImportResult.SheetResult>> sheetFutures = new ArrayList<>();
+        for (int i = 0; i < sheetNames.size(); i++) {
+            int sheetIndex = i;
+            sheetFutures.add(CompletableFuture.supplyAsync(
+                    ImportJob.propagate(() -> importSheet(file, sheetIndex, sheetNames.get(sheetIndex), duplicateCheck)),
+                    sheetExecutor));
+        }
+
+        List<BatchImportResult.SheetResult> sheetResults = new ArrayList<>();
+        for (CompletableFuture<BatchImportResult.SheetResult> future : sheetFutures) {
+            sheetResults.add(future.join());
+        }
+        return new BatchImportResult.FileResult(file, sheetResults, null);
+    }
+
+    private BatchImportResult.SheetResult importSheet(File file, int sheetIndex, String sheetName,
+                                                      DuplicateDetector.Check duplicateCheck) {
+        long start = System.nanoTime();
+        ChunkDispatcher dispatcher = new ChunkDispatcher(caseMasterBatchWriter.getChunkSize());
+        String error = null;
+
+        try {
+            parsePermits.acquire();
+            try {
+                excelService.readSheet(file, sheetIndex, duplicateCheck, dispatcher);
+                dispatcher.flush();
+            } finally {
+                parsePermits.release(); // Parsing is done; remaining writes do not hold a parse slot
+            }
+            dispatcher.awaitAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            System.err.println("Import of " + file.getName() + " [" + sheetName + "] failed: " + error);
+        }
+        if (error != null) {
+            dispatcher.awaitQuietly(); // Count chunks that were already committed
+            importMetrics.rowsRejected(dispatcher.rowsRead - dispatcher.written.total());
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return new BatchImportResult.SheetResult(sheetName, dispatcher.rowsRead, dispatcher.written, elapsedMs, error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sheetExecutor.shutdownNow();
+        writerExecutor.shutdownNow();
+    }
+
+    /**
+     * Groups the rows of one sheet into chunks and submits them to the writer pool.
+     * At most maxPendingChunks chunks per sheet are in flight; the parser waits for the
+     * oldest one before submitting more, so a slow database throttles parsing instead of
+     * letting parsed rows pile up in memory.
+     */
+    private final class ChunkDispatcher implements Consumer<CaseMaster> {
+        private final int chunkSize;
+        private final Deque<Future<WriteCounts>> pending = new ArrayDeque<>();
+        private List<CaseMaster> buffer;
+        private int rowsRead;
+        private WriteCounts written = WriteCounts.NONE;
+
+        ChunkDispatcher(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.buffer = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void accept(CaseMaster caseMaster) {
+            buffer.add(caseMaster);
+            rowsRead++;
+            if (buffer.size() >= chunkSize) {
+                submit();
+            }
+        }
+
+        void flush() {
+            if (!buffer.isEmpty()) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            ImportJob.checkCancelled(); // Chunk boundary: stops parsing this sheet once the job is cancelled
+            List<CaseMaster> chunk = buffer;
+            buffer = new ArrayList<>(chunkSize);
+            // The writer thread counts the chunk against the job's progress
+            Supplier<WriteCounts> write = ImportJob.propagate(() -> caseMasterBatchWriter.writeChunk(chunk));
+            pending.addLast(writerExecutor.submit(write::get));
+            while (pending.size() > maxPendingChunks) {
+                written = written.plus(await(pending.removeFirst()));
+            }
+        }
+
+        void awaitAll() throws InterruptedException, ExecutionException {
+            while (!pending.isEmpty()) {
+                written = written.plus(pending.removeFirst().get());
+            }
+        }
+
+        void awaitQuietly() {
+            while (!pending.isEmpty()) {
+                try {
+                    written = written.plus(pending.removeFirst().get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // Already reported through the first failure
+                }
+            }
+        }
+
+        private WriteCounts await(Future<WriteCounts> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a chunk write.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Chunk write failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ppi.utility.importer.repository;
+
+import com.ppi.utility.importer.service.ImportMetrics;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate identifier generator that reserves a block of sequence values in one round-trip.
+ * <p>
+ * Instead of one {@code SELECT seq.NEXTVAL FROM dual} per inserted row, a single multi-row
+ * query fetches {@code block-size} values at once ({@code CONNECT BY LEVEL} on Oracle,
+ * {@code SYSTEM_RANGE} on H2). Every value still comes from the database sequence, so
+ * concurrent importer instances never receive the same ID, and the sequence itself can keep
+ * its existing {@code INCREMENT BY 1} definition.
+ * <p>
+ * The block size is configured per sequence in application.properties:
+ * {@code spring.jpa.properties.importer.sequence.<SEQUENCE_NAME>.block-size}.
+ */
+public class BlockSequenceIdGenerator implements IdentifierGenerator {
+
+    public static final String SEQUENCE_PARAM = "sequence_name";
+    public static final String BLOCK_SIZE_PARAM = "block_size";
+    private static final String BLOCK_SIZE_SETTING = "importer.sequence.%s.block-size";
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private String sequenceName;
+    private int blockSize;
+    private Class<?> idType;
+    private String blockSql;  // Multi-row NEXTVAL query, or null when the dialect has none
+    private String singleSql; // Single NEXTVAL query used as a fallback
+
+    private long[] block = new long[0];
+    private int cursor;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        sequenceName = ConfigurationHelper.getString(SEQUENCE_PARAM, params);
+        if (sequenceName == null || sequenceName.isBlank()) {
+            throw new MappingException("BlockSequenceIdGenerator requires the '" + SEQUENCE_PARAM + "' parameter.");
+        }
+
+        // Per-sequence override from the Hibernate settings, falling back to the mapping default
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        int mappedBlockSize = ConfigurationHelper.getInt(BLOCK_SIZE_PARAM, params, DEFAULT_BLOCK_SIZE);
+        blockSize = Math.max(1, ConfigurationHelper.getInt(String.format(BLOCK_SIZE_SETTING, sequenceName), settings, mappedBlockSize));
+        idType = type.getReturnedClass();
+
+        Dialect dialect = serviceRegistry.requireService(JdbcEnvironment.class).getDialect();
+        if (dialect instanceof OracleDialect) {
+            blockSql = "SELECT " + sequenceName + ".NEXTVAL FROM dual CONNECT BY LEVEL <= " + blockSize;
+        } else if (dialect instanceof H2Dialect) {
+            blockSql = "SELECT NEXT VALUE FOR " + sequenceName + " FROM SYSTEM_RANGE(1, " + blockSize + ")";
+        }
+        singleSql = dialect.getSequenceSupport().getSequenceNextValString(sequenceName);
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (cursor >= block.length) {
+            block = fetchBlock(session);
+            cursor = 0;
+        }
+        return toIdType(block[cursor++]);
+    }
+
+    /**
+     * Reserves the next block of sequence values using the session's JDBC connection.
+     */
+    private long[] fetchBlock(SharedSessionContractImplementor session) {
+        long start = System.nanoTime();
+        long[] values = new long[blockSize];
+        if (blockSql != null) {
+            int count = executeInto(session, blockSql, values, 0);
+            if (count != blockSize) {
+                throw new HibernateException("Sequence " + sequenceName + " returned " + count
+                        + " values, expected " + blockSize + ".");
+            }
+        } else {
+            for (int i = 0; i < blockSize; i++) {
+                executeInto(session, singleSql, values, i);
+            }
+        }
+        // Hibernate creates this generator outside Spring, so it records through the global registry
+        Metrics.timer(ImportMetrics.SEQUENCE_FETCH, "sequence", sequenceName)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return values;
+    }
+
+    private int executeInto(SharedSessionContractImplementor session, String sql, long[] values, int offset) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+        try {
+            ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement, sql);
+            int count = 0;
+            while (resultSet.next() && offset + count < values.length) {
+                values[offset + count++] = resultSet.getLong(1);
+            }
+            return count;
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "Could not fetch a block of values from sequence " + sequenceName, sql);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+
+    /**
+     * CASE_MASTER_TBL uses a VARCHAR(20) key while CASE_CUST_PRV_ADDRESS uses NUMBER(20).
+     */
+    private Object toIdType(long value) {
+        if (idType == String.class) {
+            return String.valueOf(value);
+        }
+        if (idType == Integer.class || idType == int.class) {
+            return (int) value;
+        }
+        return value;
+    }
+}
@@ -1,6 +1,9 @@
 package com.ppi.utility.importer.model;
 
+import com.ppi.utility.importer.repository.BlockSequenceIdGenerator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.sql.Timestamp;
 import java.time.LocalDateTime; // For CURRENT TS
 
@@ -12,8 +15,10 @@ import java.time.LocalDateTime; // For CURRENT TS
 public class CaseCustPrvAddress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prv_addr_seq_generator")
-    @SequenceGenerator(name = "prv_addr_seq_generator", sequenceName = "PRV_ADDR_SEQ", allocationSize = 1) // Corrected sequence name
+    @GeneratedValue(generator = "prv_addr_seq_generator")
+    @GenericGenerator(name = "prv_addr_seq_generator", type = BlockSequenceIdGenerator.class, parameters = {
+            @Parameter(name = BlockSequenceIdGenerator.SEQUENCE_PARAM, value = "PRV_ADDR_SEQ") // Block size: importer.sequence.PRV_ADDR_SEQ.block-size
+    })
     @Column(name = "PRV_ADDR_SEQ_ID", nullable = false)
     private Long prvAddrSeqId; // NUMBER(20)
 
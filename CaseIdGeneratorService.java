@@ -0,0 +1,187 @@
+package com.ppi.utility.importer.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class responsible for generating CASE_ID values for CASE_MASTER_TBL.
+ * <p>
+ * Sequence values are reserved from CASE_ID_SEQ in blocks with a single multi-row NEXTVAL query.
+ * IDs are handed out lock-free from the current block through an atomic cursor, and the next block
+ * is fetched on a background thread once the current one falls below the refill threshold, so
+ * callers on parallel import threads normally never wait on the database.
+ */
+@Service
+public class CaseIdGeneratorService {
+
+    private static final int CASE_ID_LENGTH = 20; // CASE_ID is VARCHAR(20)
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportMetrics importMetrics;
+    private final String sequenceName;
+    private final int blockSize;
+    private final int refillThreshold;
+    private final String prefix;
+    private volatile String blockSql;
+
+    private final AtomicReference<IdBlock> currentBlock = new AtomicReference<>(IdBlock.EMPTY);
+    private final AtomicReference<CompletableFuture<IdBlock>> nextBlock = new AtomicReference<>();
+    private final Object advanceLock = new Object();
+    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "case-id-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public CaseIdGeneratorService(JdbcTemplate jdbcTemplate,
+                                  ImportMetrics importMetrics,
+                                  @Value("${importer.case-id.sequence:CASE_ID_SEQ}") String sequenceName,
+                                  @Value("${importer.case-id.block-size:1000}") int blockSize,
+                                  @Value("${importer.case-id.refill-threshold:0.25}") double refillThreshold,
+                                  @Value("${importer.case-id.prefix:}") String prefix) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.importMetrics = importMetrics;
+        this.sequenceName = sequenceName;
+        this.blockSize = Math.max(1, blockSize);
+        if (!(refillThreshold > 0 && refillThreshold < 1)) {
+            throw new IllegalArgumentException("importer.case-id.refill-threshold must be between 0 and 1 (exclusive), was "
+                    + refillThreshold + ".");
+        }
+        // Prefetch once this many IDs are left in the current block; kept inside the block, or no index in
+        // generateCaseId would ever match it and every block would be fetched synchronously
+        this.refillThreshold = (int) Math.max(1, Math.min(this.blockSize - 1, Math.round(this.blockSize * refillThreshold)));
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns the next CASE_ID. Safe to call from any number of threads.
+     *
+     * @return A unique CASE_ID of at most 20 characters.
+     */
+    public String generateCaseId() {
+        while (true) {
+            IdBlock block = currentBlock.get();
+            int index = block.cursor.getAndIncrement();
+            if (index < block.values.length) {
+                if (index == block.values.length - refillThreshold) {
+                    prefetchNextBlock(); // Exactly one caller crosses the threshold per block
+                }
+                return formatCaseId(block.values[index]);
+            }
+            advance(block);
+        }
+    }
+
+    /**
+     * Replaces an exhausted block with the prefetched one, or fetches synchronously if none is pending.
+     * Only block boundaries take this lock; every other call stays on the lock-free path.
+     */
+    private void advance(IdBlock exhausted) {
+        synchronized (advanceLock) {
+            if (currentBlock.get() != exhausted) {
+                return; // Another thread already moved on to a fresh block
+            }
+            CompletableFuture<IdBlock> pending = nextBlock.getAndSet(null);
+            IdBlock fresh = null;
+            if (pending != null) {
+                try {
+                    fresh = pending.join();
+                } catch (CompletionException e) {
+                    System.err.println("Background CASE_ID refill failed, retrying inline: " + e.getCause().getMessage());
+                }
+            }
+            currentBlock.set(fresh != null ? fresh : fetchBlock());
+        }
+    }
+
+    private void prefetchNextBlock() {
+        CompletableFuture<IdBlock> future = new CompletableFuture<>();
+        if (nextBlock.compareAndSet(null, future)) {
+            refillExecutor.execute(() -> {
+                try {
+                    future.complete(fetchBlock());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reserves blockSize values from the sequence in one round-trip.
+     * Values come straight from the sequence, so concurrent importers never collide.
+     */
+    private IdBlock fetchBlock() {
+        long start = System.nanoTime();
+        List<Long> values = jdbcTemplate.queryForList(getBlockSql(), Long.class);
+        importMetrics.recordSequenceFetch(sequenceName, System.nanoTime() - start);
+        if (values.size() != blockSize) {
+            throw new IllegalStateException("Sequence " + sequenceName + " returned " + values.size()
+                    + " values, expected " + blockSize + ".");
+        }
+        long[] block = new long[values.size()];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = values.get(i);
+        }
+        return new IdBlock(block);
+    }
+
+    /**
+     * Multi-row NEXTVAL query for the connected database: CONNECT BY LEVEL on Oracle,
+     * SYSTEM_RANGE on H2 (the benchmark stand-in). Resolved once, on the first fetch.
+     */
+    private String getBlockSql() {
+        String sql = blockSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("H2".equals(product)) {
+                sql = "SELECT NEXT VALUE FOR " + sequenceName + " FROM SYSTEM_RANGE(1, " + blockSize + ")";
+            } else {
+                sql = "SELECT " + sequenceName + ".NEXTVAL FROM dual CONNECT BY LEVEL <= " + blockSize;
+            }
+            blockSql = sql;
+        }
+        return sql;
+    }
+
+    private String formatCaseId(long value) {
+        String caseId = prefix + value;
+        if (caseId.length() > CASE_ID_LENGTH) {
+            throw new IllegalStateException("Generated CASE_ID '" + caseId + "' exceeds " + CASE_ID_LENGTH + " characters.");
+        }
+        return caseId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * A reserved range of sequence values with an atomic cursor.
+     */
+    private static final class IdBlock {
+        static final IdBlock EMPTY = new IdBlock(new long[0]);
+
+        final long[] values;
+        final AtomicInteger cursor = new AtomicInteger();
+
+        IdBlock(long[] values) {
+            this.values = values;
+        }
+    }
+}
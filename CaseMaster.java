@@ -1,6 +1,9 @@
 package com.ppi.utility.importer.model;
 
+import com.ppi.utility.importer.repository.BlockSequenceIdGenerator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.sql.Timestamp;
 import java.time.LocalDate; // For DATE_OF_BIRTH
 import java.time.LocalDateTime; // For SUBMITTED_TS (if using LocalDateTime directly)
@@ -14,8 +17,10 @@ import java.time.LocalDateTime; // For SUBMITTED_TS (if using LocalDateTime dire
 public class CaseMaster {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "case_id_seq_generator")
-    @SequenceGenerator(name = "case_id_seq_generator", sequenceName = "CASE_ID_SEQ", allocationSize = 1)
+    @GeneratedValue(generator = "case_id_seq_generator")
+    @GenericGenerator(name = "case_id_seq_generator", type = BlockSequenceIdGenerator.class, parameters = {
+            @Parameter(name = BlockSequenceIdGenerator.SEQUENCE_PARAM, value = "CASE_ID_SEQ") // Block size: importer.sequence.CASE_ID_SEQ.block-size
+    })
     @Column(name = "CASE_ID", length = 20, nullable = false)
     private String caseId;
 
@@ -61,6 +66,9 @@ public class CaseMaster {
     @Column(name = "THIRD_PARTY_REFERENCE_2", length = 50)
     private String thirdPartyReference2;
 
+    @Transient
+    private int sourceRowIndex = -1; // 0-based sheet row the case was read from; used for import checkpoints
+
     /**
      * Default constructor. Sets default values for certain fields upon instantiation.
      */
@@ -196,6 +204,14 @@ public class CaseMaster {
         this.thirdPartyReference2 = thirdPartyReference2;
     }
 
+    public int getSourceRowIndex() {
+        return sourceRowIndex;
+    }
+
+    public void setSourceRowIndex(int sourceRowIndex) {
+        this.sourceRowIndex = sourceRowIndex;
+    }
+
     @Override
     public String toString() {
         return "CaseMaster{" +
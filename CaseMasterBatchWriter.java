@@ -0,0 +1,254 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import com.ppi.utility.importer.repository.CaseMasterJdbcLoader;
+import com.ppi.utility.importer.repository.CaseMasterMergeLoader;
+import com.ppi.utility.importer.repository.CaseMasterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Service class responsible for persisting CaseMaster rows in fixed-size chunks.
+ * Each chunk is sent as JDBC batches (see hibernate.jdbc.batch_size) and then flushed and
+ * cleared from the persistence context, so heap usage stays bounded by the chunk size
+ * instead of growing with the number of rows in the file.
+ * <p>
+ * With {@code importer.persistence.mode=jdbc} chunks bypass Hibernate and go through
+ * CaseMasterJdbcLoader instead, with CASE_IDs taken from CaseIdGeneratorService.
+ * With {@code importer.persistence.mode=merge} chunks are staged and merged by CaseMasterMergeLoader,
+ * so re-submitted cases update or skip existing rows instead of being inserted again.
+ */
+@Service
+public class CaseMasterBatchWriter {
+
+    private final CaseMasterRepository caseMasterRepository;
+    private final CaseMasterJdbcLoader jdbcLoader;
+    private final CaseMasterMergeLoader mergeLoader;
+    private final CaseIdGeneratorService caseIdGeneratorService;
+    private final ImportMetrics importMetrics;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Lazy
+    @Autowired
+    private CaseMasterBatchWriter self; // Transactional proxy, for chunks committed in their own transaction
+
+    @Value("${importer.persistence.chunk-size:1000}")
+    private int chunkSize; // Rows per flush/clear cycle
+
+    @Value("${importer.persistence.mode:jpa}")
+    private PersistenceMode mode;
+
+    /**
+     * How chunks reach the database.
+     */
+    public enum PersistenceMode {
+        /** Spring Data saveAll + flush/clear, with Hibernate JDBC batching. */
+        JPA,
+        /** Plain JDBC addBatch/executeBatch, no entity lifecycle. */
+        JDBC,
+        /** Staging table plus one serialized MERGE per chunk, deduplicating on the third-party references and date of birth. */
+        MERGE
+    }
+
+    @Autowired
+    public CaseMasterBatchWriter(CaseMasterRepository caseMasterRepository,
+                                 CaseMasterJdbcLoader jdbcLoader,
+                                 CaseMasterMergeLoader mergeLoader,
+                                 CaseIdGeneratorService caseIdGeneratorService,
+                                 ImportMetrics importMetrics) {
+        this.caseMasterRepository = caseMasterRepository;
+        this.jdbcLoader = jdbcLoader;
+        this.mergeLoader = mergeLoader;
+        this.caseIdGeneratorService = caseIdGeneratorService;
+        this.importMetrics = importMetrics;
+    }
+
+    /**
+     * Starts a chunked insert for one import. Must be used within the importing transaction.
+     * <p>
+     * In merge mode every chunk is still committed in its own transaction, as with beginCommitted:
+     * CaseMasterMergeLoader holds its merge lock (and on Oracle a lock on CASE_MASTER_TBL) until commit,
+     * which would otherwise block every other import for the whole file. A merge can safely be repeated,
+     * so re-running a file that failed part way merges its committed chunks again as skipped rows.
+     *
+     * @param sourceName Name used to label progress output (usually the file name).
+     * @return A row consumer that writes a chunk every time the buffer fills up.
+     */
+    public ChunkedInsert begin(String sourceName) {
+        ChunkListener ownTransaction = mode == PersistenceMode.MERGE ? (chunk, counts) -> { } : null;
+        return new ChunkedInsert(sourceName, getChunkSize(), ownTransaction);
+    }
+
+    /**
+     * Starts a chunked insert that commits every chunk in its own transaction (see writeChunk), with the
+     * listener's own writes in that same transaction. Must be used outside a transaction; a failure then only
+     * loses the chunk being written.
+     *
+     * @param sourceName Name used to label progress output (usually the file name).
+     * @param listener   Called on the writing thread after each chunk's rows were written, before the commit.
+     * @return A row consumer that writes and commits a chunk every time the buffer fills up.
+     */
+    public ChunkedInsert beginCommitted(String sourceName, ChunkListener listener) {
+        return new ChunkedInsert(sourceName, getChunkSize(), listener);
+    }
+
+    /**
+     * Receives the chunks of a ChunkedInsert started with beginCommitted, inside each chunk's transaction,
+     * so whatever it writes through the transaction's connection commits or rolls back with the rows.
+     */
+    @FunctionalInterface
+    public interface ChunkListener {
+        /**
+         * @param chunk  The written rows, in sheet order. Only valid for the duration of the call.
+         * @param counts What happened to the rows of the chunk.
+         * @throws RuntimeException To roll the chunk back.
+         */
+        void written(List<CaseMaster> chunk, WriteCounts counts);
+    }
+
+    public int getChunkSize() {
+        return Math.max(1, chunkSize);
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Persists one chunk in its own transaction. Used by the batch import engine, where chunks
+     * are written on dedicated writer threads rather than in the thread that parsed them.
+     *
+     * @param chunk The rows to insert.
+     * @return What happened to the rows of the chunk.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public WriteCounts writeChunk(List<CaseMaster> chunk) {
+        importMetrics.timeCommit();
+        return persist(chunk, true);
+    }
+
+    /**
+     * Persists one chunk and runs the listener in the same, new transaction.
+     *
+     * @param chunk    The rows to insert.
+     * @param listener Records the chunk (e.g. a checkpoint) as part of its transaction.
+     * @return What happened to the rows of the chunk.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public WriteCounts writeChunk(List<CaseMaster> chunk, ChunkListener listener) {
+        importMetrics.timeCommit();
+        WriteCounts counts = persist(chunk, true);
+        listener.written(chunk, counts);
+        return counts;
+    }
+
+    /**
+     * @param ownTransaction True when the chunk is committed on its own right after this call.
+     */
+    private WriteCounts persist(List<CaseMaster> chunk, boolean ownTransaction) {
+        long start = System.nanoTime();
+        WriteCounts counts;
+        if (mode == PersistenceMode.JPA) {
+            caseMasterRepository.saveAll(chunk);
+            entityManager.flush(); // Send the pending INSERTs as JDBC batches
+            entityManager.clear(); // Detach the chunk so the persistence context does not grow
+            counts = WriteCounts.inserted(chunk.size());
+        } else {
+            for (CaseMaster caseMaster : chunk) {
+                if (caseMaster.getCaseId() == null) {
+                    caseMaster.setCaseId(caseIdGeneratorService.generateCaseId()); // Hibernate's generator is not involved
+                }
+            }
+            if (mode == PersistenceMode.MERGE) {
+                CaseMasterMergeLoader.MergeResult merged = mergeLoader.merge(chunk);
+                counts = new WriteCounts(merged.inserted(), merged.updated(), merged.skipped());
+            } else {
+                counts = WriteCounts.inserted(jdbcLoader.insert(chunk, ownTransaction));
+            }
+        }
+        importMetrics.recordBatchInsert(chunk.size(), System.nanoTime() - start);
+        ImportJob.currentProgress().chunkWritten(chunk.size());
+        return counts;
+    }
+
+    /**
+     * Buffers rows and writes them chunk by chunk. Not thread-safe; one instance per import.
+     */
+    public final class ChunkedInsert implements Consumer<CaseMaster> {
+        private final String sourceName;
+        private final int size;
+        private final List<CaseMaster> buffer;
+        private final ChunkListener listener; // Null when chunks join the caller's transaction
+        private WriteCounts counts = WriteCounts.NONE;
+        private int chunksWritten;
+
+        private ChunkedInsert(String sourceName, int size, ChunkListener listener) {
+            this.sourceName = sourceName;
+            this.size = size;
+            this.buffer = new ArrayList<>(size);
+            this.listener = listener;
+        }
+
+        @Override
+        public void accept(CaseMaster caseMaster) {
+            buffer.add(caseMaster);
+            if (buffer.size() >= size) {
+                writeChunk();
+            }
+        }
+
+        /**
+         * Writes any remaining buffered rows.
+         *
+         * @return The total number of rows handed to the database by this insert.
+         */
+        public int finish() {
+            if (!buffer.isEmpty()) {
+                writeChunk();
+            }
+            return counts.total();
+        }
+
+        public int getRowsWritten() {
+            return counts.total();
+        }
+
+        /**
+         * @return The inserted, updated and skipped rows so far.
+         */
+        public WriteCounts getCounts() {
+            return counts;
+        }
+
+        private void writeChunk() {
+            ImportJob.checkCancelled(); // Chunk boundary: a cancelled job stops here, before any more database work
+            long start = System.nanoTime();
+
+            WriteCounts chunkCounts;
+            if (listener == null) {
+                chunkCounts = persist(buffer, false); // Part of the caller's transaction
+            } else {
+                chunkCounts = self.writeChunk(buffer, listener); // Committed, together with the listener's writes, before it returns
+            }
+
+            counts = counts.plus(chunkCounts);
+            chunksWritten++;
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("[" + sourceName + "] Chunk " + chunksWritten + ": persisted " + buffer.size()
+                    + " rows in " + elapsedMs + " ms (" + counts.total() + " rows so far)");
+            buffer.clear();
+        }
+    }
+}
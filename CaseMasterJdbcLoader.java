@@ -0,0 +1,141 @@
+package com.ppi.utility.importer.repository;
+
+import com.ppi.utility.importer.model.CaseCustPrvAddress;
+import com.ppi.utility.importer.model.CaseMaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC bulk insert for CASE_MASTER_TBL, used when {@code importer.persistence.mode=jdbc}.
+ * <p>
+ * Rows are bound straight from the CaseMaster getters into one PreparedStatement and sent with
+ * addBatch/executeBatch (array binding on the Oracle driver), skipping Hibernate's entity lifecycle:
+ * no persistence context, dirty checking, or per-row SQL logging. The statement runs on the connection
+ * of the current Spring transaction, so chunk commit and rollback behave exactly as in JPA mode.
+ * CASE_ID must already be set; this class does not generate identifiers.
+ * <p>
+ * insertWithAddresses also writes the defaulted CASE_CUST_PRV_ADDRESS row of every case in the same
+ * batch cycle, taking PRV_ADDR_SEQ_ID from the sequence inside the INSERT itself, so the child table
+ * costs one extra executeBatch per slice and no identifier round-trips.
+ */
+@Repository
+public class CaseMasterJdbcLoader {
+
+    private static final String INSERT_COLUMNS = "INSERT %sINTO CASE_MASTER_TBL (CASE_ID, CHANNEL_ID, USER_ID, SUBMITTED_TS,"
+            + " CASE_TYPE, CASE_STATUS_ID, IS_CURRENT_UK_RESIDENT, TITLE_CODE, FIRST_NAME, MIDDLE_NAME, LAST_NAME,"
+            + " DATE_OF_BIRTH, POST_CODE, THIRD_PARTY_REFERENCE_1, THIRD_PARTY_REFERENCE_2)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SQL = String.format(INSERT_COLUMNS, "");
+    private static final String APPEND_VALUES_SQL = String.format(INSERT_COLUMNS, "/*+ APPEND_VALUES */ ");
+    private static final String INSERT_ADDRESS_SQL = "INSERT INTO CASE_CUST_PRV_ADDRESS"
+            + " (PRV_ADDR_SEQ_ID, UK_FLG, EXRTRACT_IND, ORACLE_LOAD_TIMESTAMP, CASE_ID)"
+            + " VALUES (PRV_ADDR_SEQ.NEXTVAL, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final boolean appendValues;
+
+    @Autowired
+    public CaseMasterJdbcLoader(JdbcTemplate jdbcTemplate,
+                                @Value("${importer.persistence.jdbc.batch-size:1000}") int batchSize,
+                                @Value("${importer.persistence.jdbc.append-values:false}") boolean appendValues) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.appendValues = appendValues;
+    }
+
+    /**
+     * Inserts the rows in executeBatch calls of {@code importer.persistence.jdbc.batch-size}.
+     * <p>
+     * With {@code append-values} enabled, Oracle performs a direct-path insert above the high-water mark.
+     * A direct-path insert must be committed before the same transaction touches the table again
+     * (ORA-12838), so the hint is only used when the caller commits right after this call, and the
+     * whole chunk is then sent as a single executeBatch.
+     *
+     * @param rows            The rows to insert; CASE_ID must be populated.
+     * @param ownTransaction  True when the rows are committed in their own transaction immediately afterwards.
+     * @return The number of rows inserted.
+     */
+    public int insert(List<CaseMaster> rows, boolean ownTransaction) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        boolean directPath = appendValues && ownTransaction;
+        jdbcTemplate.batchUpdate(directPath ? APPEND_VALUES_SQL : INSERT_SQL, rows,
+                directPath ? rows.size() : batchSize, CaseMasterJdbcLoader::bind);
+        return rows.size();
+    }
+
+    /**
+     * Inserts the rows plus one CASE_CUST_PRV_ADDRESS row per case, slice by slice: each slice sends
+     * the parent batch and then the child batch on the same connection, so a CASE_ID foreign key
+     * would always be satisfied. The child rows carry the defaults of a new CaseCustPrvAddress.
+     *
+     * @param rows            The rows to insert; CASE_ID must be populated.
+     * @param ownTransaction  True when the rows are committed in their own transaction immediately afterwards.
+     * @return The number of cases inserted (the same number of address rows is inserted).
+     */
+    public int insertWithAddresses(List<CaseMaster> rows, boolean ownTransaction) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        boolean directPath = appendValues && ownTransaction;
+        int sliceSize = directPath ? rows.size() : batchSize;
+        CaseCustPrvAddress defaults = new CaseCustPrvAddress(); // UK_FLG, EXRTRACT_IND and load timestamp
+
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement caseStatement = connection.prepareStatement(directPath ? APPEND_VALUES_SQL : INSERT_SQL);
+                 PreparedStatement addressStatement = connection.prepareStatement(INSERT_ADDRESS_SQL)) {
+                addressStatement.setString(1, defaults.getUkFlg().toString());
+                addressStatement.setString(2, defaults.getExtractInd().toString());
+                addressStatement.setTimestamp(3, defaults.getOracleLoadTimestamp());
+
+                for (int from = 0; from < rows.size(); from += sliceSize) {
+                    int to = Math.min(rows.size(), from + sliceSize);
+                    for (int i = from; i < to; i++) {
+                        CaseMaster caseMaster = rows.get(i);
+                        bind(caseStatement, caseMaster);
+                        caseStatement.addBatch();
+                        addressStatement.setString(4, caseMaster.getCaseId()); // Other parameters stay bound
+                        addressStatement.addBatch();
+                    }
+                    caseStatement.executeBatch(); // Parents first
+                    addressStatement.executeBatch();
+                }
+            }
+            return rows.size();
+        });
+    }
+
+    private static void bind(PreparedStatement statement, CaseMaster caseMaster) throws SQLException {
+        statement.setString(1, caseMaster.getCaseId());
+        statement.setString(2, caseMaster.getChannelId());
+        statement.setString(3, caseMaster.getUserId());
+        statement.setTimestamp(4, caseMaster.getSubmittedTs());
+        statement.setString(5, caseMaster.getCaseType());
+        if (caseMaster.getCaseStatusId() != null) {
+            statement.setLong(6, caseMaster.getCaseStatusId());
+        } else {
+            statement.setNull(6, Types.NUMERIC);
+        }
+        Character ukResident = caseMaster.getIsCurrentUkResident();
+        statement.setString(7, ukResident != null ? ukResident.toString() : null);
+        statement.setString(8, caseMaster.getTitleCode());
+        statement.setString(9, caseMaster.getFirstName());
+        statement.setString(10, caseMaster.getMiddleName());
+        statement.setString(11, caseMaster.getLastName());
+        statement.setDate(12, caseMaster.getDateOfBirth() != null ? Date.valueOf(caseMaster.getDateOfBirth()) : null);
+        statement.setString(13, caseMaster.getPostCode());
+        statement.setString(14, caseMaster.getThirdPartyReference1());
+        statement.setString(15, caseMaster.getThirdPartyReference2());
+    }
+}
@@ -0,0 +1,201 @@
+package com.ppi.utility.importer.repository;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deduplicating load for CASE_MASTER_TBL, used when {@code importer.persistence.mode=merge}.
+ * <p>
+ * Each chunk is bulk-inserted into the CASE_MASTER_STG staging table (a global temporary table, see
+ * case_master_stg.sql) and then applied with a single MERGE keyed on THIRD_PARTY_REFERENCE_1,
+ * THIRD_PARTY_REFERENCE_2 and DATE_OF_BIRTH:
+ * <ul>
+ *   <li>no existing case with the key: the staged row is inserted</li>
+ *   <li>an existing case whose names or post code differ: it is updated, SUBMITTED_TS included</li>
+ *   <li>an existing, identical case, or an earlier duplicate within the same chunk: skipped</li>
+ * </ul>
+ * Keys are compared null-safely through COALESCE, so the join stays an equi-join the database can
+ * hash, or probe through the matching function-based index created by case_master_stg.sql.
+ * All statements run on the connection of the current Spring transaction, which is required: the staging
+ * table is emptied on commit, so under auto-commit the MERGE would find nothing to merge.
+ * <p>
+ * Staging runs in parallel, but the counts and the MERGE are serialized until the transaction ends:
+ * two concurrent MERGEs would each see a new key as NOT MATCHED and both insert it. Within this process
+ * a lock held until commit does this; on Oracle the MERGE additionally locks CASE_MASTER_TBL in SHARE ROW
+ * EXCLUSIVE mode, which also keeps out other importer instances while still letting readers through.
+ * Both are held until the transaction ends, so callers should commit every chunk on its own
+ * (CaseMasterBatchWriter.writeChunk) rather than merge a whole file in one transaction.
+ */
+@Repository
+public class CaseMasterMergeLoader {
+
+    private static final String STAGE_SQL = "INSERT INTO CASE_MASTER_STG (STG_ROW_NO, CASE_ID, CHANNEL_ID, USER_ID,"
+            + " SUBMITTED_TS, CASE_TYPE, CASE_STATUS_ID, IS_CURRENT_UK_RESIDENT, TITLE_CODE, FIRST_NAME, MIDDLE_NAME,"
+            + " LAST_NAME, DATE_OF_BIRTH, POST_CODE, THIRD_PARTY_REFERENCE_1, THIRD_PARTY_REFERENCE_2)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CLEAR_STAGE_SQL = "DELETE FROM CASE_MASTER_STG";
+    private static final String ORACLE_LOCK_SQL = "LOCK TABLE CASE_MASTER_TBL IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String KEY_COLUMNS = "THIRD_PARTY_REFERENCE_1, THIRD_PARTY_REFERENCE_2, DATE_OF_BIRTH";
+    private static final String KEY_MATCH = "COALESCE(t.THIRD_PARTY_REFERENCE_1, CHR(0)) = COALESCE(s.THIRD_PARTY_REFERENCE_1, CHR(0))"
+            + " AND COALESCE(t.THIRD_PARTY_REFERENCE_2, CHR(0)) = COALESCE(s.THIRD_PARTY_REFERENCE_2, CHR(0))"
+            + " AND COALESCE(t.DATE_OF_BIRTH, DATE '0001-01-01') = COALESCE(s.DATE_OF_BIRTH, DATE '0001-01-01')";
+    private static final String CHANGED = "COALESCE(t.LAST_NAME, CHR(0)) <> COALESCE(s.LAST_NAME, CHR(0))"
+            + " OR COALESCE(t.FIRST_NAME, CHR(0)) <> COALESCE(s.FIRST_NAME, CHR(0))"
+            + " OR COALESCE(t.POST_CODE, CHR(0)) <> COALESCE(s.POST_CODE, CHR(0))";
+
+    private static final String COUNT_KEYS_SQL = "SELECT COUNT(*) FROM (SELECT 1 FROM CASE_MASTER_STG GROUP BY " + KEY_COLUMNS + ") k";
+    private static final String COUNT_MATCHED_SQL = "SELECT COUNT(*) FROM (SELECT " + KEY_COLUMNS
+            + " FROM CASE_MASTER_STG GROUP BY " + KEY_COLUMNS + ") s"
+            + " WHERE EXISTS (SELECT 1 FROM CASE_MASTER_TBL t WHERE " + KEY_MATCH + ")";
+
+    // Latest staged row per key; ROW_NUMBER groups null keys together, matching the COALESCE comparison
+    private static final String MERGE_SOURCE = "(SELECT * FROM (SELECT g.*, ROW_NUMBER() OVER (PARTITION BY " + KEY_COLUMNS
+            + " ORDER BY g.STG_ROW_NO DESC) AS RN FROM CASE_MASTER_STG g) d WHERE d.RN = 1) s";
+    private static final String MERGE_UPDATE = "UPDATE SET SUBMITTED_TS = s.SUBMITTED_TS, LAST_NAME = s.LAST_NAME,"
+            + " FIRST_NAME = s.FIRST_NAME, POST_CODE = s.POST_CODE";
+    private static final String MERGE_INSERT = "WHEN NOT MATCHED THEN INSERT (CASE_ID, CHANNEL_ID, USER_ID, SUBMITTED_TS,"
+            + " CASE_TYPE, CASE_STATUS_ID, IS_CURRENT_UK_RESIDENT, TITLE_CODE, FIRST_NAME, MIDDLE_NAME, LAST_NAME,"
+            + " DATE_OF_BIRTH, POST_CODE, THIRD_PARTY_REFERENCE_1, THIRD_PARTY_REFERENCE_2)"
+            + " VALUES (s.CASE_ID, s.CHANNEL_ID, s.USER_ID, s.SUBMITTED_TS, s.CASE_TYPE, s.CASE_STATUS_ID,"
+            + " s.IS_CURRENT_UK_RESIDENT, s.TITLE_CODE, s.FIRST_NAME, s.MIDDLE_NAME, s.LAST_NAME, s.DATE_OF_BIRTH,"
+            + " s.POST_CODE, s.THIRD_PARTY_REFERENCE_1, s.THIRD_PARTY_REFERENCE_2)";
+
+    // Oracle only accepts the update condition as a trailing WHERE; H2 and the SQL standard use WHEN MATCHED AND
+    private static final String ORACLE_MERGE_SQL = "MERGE INTO CASE_MASTER_TBL t USING " + MERGE_SOURCE + " ON (" + KEY_MATCH + ")"
+            + " WHEN MATCHED THEN " + MERGE_UPDATE + " WHERE " + CHANGED + " " + MERGE_INSERT;
+    private static final String STANDARD_MERGE_SQL = "MERGE INTO CASE_MASTER_TBL t USING " + MERGE_SOURCE + " ON (" + KEY_MATCH + ")"
+            + " WHEN MATCHED AND (" + CHANGED + ") THEN " + MERGE_UPDATE + " " + MERGE_INSERT;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final ReentrantLock mergeLock = new ReentrantLock(true); // Held from the counts until the transaction ends
+    private volatile String databaseProduct;
+
+    @Autowired
+    public CaseMasterMergeLoader(JdbcTemplate jdbcTemplate,
+                                 @Value("${importer.persistence.jdbc.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Row counts of one merge.
+     *
+     * @param inserted New cases.
+     * @param updated  Existing cases whose data changed.
+     * @param skipped  Rows that matched an identical case, or were superseded by a later row with the same key.
+     */
+    public record MergeResult(int inserted, int updated, int skipped) {
+    }
+
+    /**
+     * Stages the rows and merges them into CASE_MASTER_TBL.
+     *
+     * @param rows The rows to merge, in sheet order; CASE_ID must be populated (it is used only for inserts).
+     * @return The inserted, updated and skipped counts.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public MergeResult merge(List<CaseMaster> rows) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("merge requires a transaction");
+        }
+        if (rows.isEmpty()) {
+            return new MergeResult(0, 0, 0);
+        }
+        jdbcTemplate.update(CLEAR_STAGE_SQL); // Rows of an earlier chunk in the same transaction
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<CaseMaster> slice = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            int firstRowNo = from;
+            jdbcTemplate.batchUpdate(STAGE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    bind(statement, firstRowNo + i, slice.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return slice.size();
+                }
+            });
+        }
+
+        boolean oracle = isOracle();
+        lockUntilCompletion();
+        if (oracle) {
+            jdbcTemplate.execute(ORACLE_LOCK_SQL); // Released by the commit, like the process lock
+        }
+        int distinctKeys = jdbcTemplate.queryForObject(COUNT_KEYS_SQL, Integer.class);
+        int matchedKeys = jdbcTemplate.queryForObject(COUNT_MATCHED_SQL, Integer.class);
+        int merged = jdbcTemplate.update(oracle ? ORACLE_MERGE_SQL : STANDARD_MERGE_SQL); // Inserted plus updated rows
+        jdbcTemplate.update(CLEAR_STAGE_SQL);
+
+        int inserted = distinctKeys - matchedKeys;
+        // A key already duplicated in CASE_MASTER_TBL updates several rows; count it once
+        int updated = Math.min(Math.max(0, merged - inserted), matchedKeys);
+        return new MergeResult(inserted, updated, rows.size() - inserted - updated);
+    }
+
+    /**
+     * Takes the merge lock and releases it once the current transaction has committed or rolled back,
+     * so no other merge can count or insert keys this one has inserted but not yet committed.
+     * Chunks merged by one thread within one transaction take it reentrantly.
+     */
+    private void lockUntilCompletion() {
+        mergeLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                mergeLock.unlock(); // Runs on the thread that committed, which holds the lock
+            }
+        });
+    }
+
+    private boolean isOracle() {
+        String product = databaseProduct;
+        if (product == null) {
+            product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            databaseProduct = product;
+        }
+        return "Oracle".equals(product);
+    }
+
+    private static void bind(PreparedStatement statement, int rowNo, CaseMaster caseMaster) throws SQLException {
+        statement.setInt(1, rowNo);
+        statement.setString(2, caseMaster.getCaseId());
+        statement.setString(3, caseMaster.getChannelId());
+        statement.setString(4, caseMaster.getUserId());
+        statement.setTimestamp(5, caseMaster.getSubmittedTs());
+        statement.setString(6, caseMaster.getCaseType());
+        if (caseMaster.getCaseStatusId() != null) {
+            statement.setLong(7, caseMaster.getCaseStatusId());
+        } else {
+            statement.setNull(7, Types.NUMERIC);
+        }
+        Character ukResident = caseMaster.getIsCurrentUkResident();
+        statement.setString(8, ukResident != null ? ukResident.toString() : null);
+        statement.setString(9, caseMaster.getTitleCode());
+        statement.setString(10, caseMaster.getFirstName());
+        statement.setString(11, caseMaster.getMiddleName());
+        statement.setString(12, caseMaster.getLastName());
+        statement.setDate(13, caseMaster.getDateOfBirth() != null ? Date.valueOf(caseMaster.getDateOfBirth()) : null);
+        statement.setString(14, caseMaster.getPostCode());
+        statement.setString(15, caseMaster.getThirdPartyReference1());
+        statement.setString(16, caseMaster.getThirdPartyReference2());
+    }
+}
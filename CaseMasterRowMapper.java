@@ -0,0 +1,187 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Maps a SheetRow to a CaseMaster entity, as described by the SheetLayout.
+ * Shared by every reader so that the column layout is defined in exactly one place.
+ * <p>
+ * The layout is compiled once at startup into flat arrays of column index, converter and setter.
+ * Each setter is a BiConsumer generated by LambdaMetafactory from the CaseMaster setter, so mapping
+ * a cell is a plain interface call: no reflection, name lookup or switch runs per cell.
+ */
+@Component
+public class CaseMasterRowMapper {
+
+    /**
+     * Turns the decoded cell of a column into the value passed to the setter. Selected per column
+     * with the {@code field:converter} syntax of {@code importer.layout.columns}.
+     */
+    public enum CellConverter {
+        /** The cell text as read (default). */
+        STRING(String.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                return row.getValue(column);
+            }
+        },
+        /** The cell text without surrounding whitespace; blank becomes null. */
+        TRIM(String.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                String value = row.getValue(column);
+                return value == null || value.isBlank() ? null : value.trim();
+            }
+        },
+        /** Trimmed and upper-cased, e.g. for post codes. */
+        UPPER(String.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                String value = row.getValue(column);
+                return value == null || value.isBlank() ? null : value.trim().toUpperCase();
+            }
+        },
+        /** The date of a date-formatted cell; null when missing or not in date format. */
+        DATE(LocalDate.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                return row.getDate(column);
+            }
+        },
+        /** A whole number; null when blank. */
+        LONG(Long.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                String value = row.getValue(column);
+                return value == null || value.isBlank() ? null : Long.valueOf(value.trim());
+            }
+        },
+        /** The first non-blank character, e.g. for Y/N flags; null when blank. */
+        CHAR(Character.class) {
+            @Override
+            Object convert(SheetRow row, int column) {
+                String value = row.getValue(column);
+                return value == null || value.isBlank() ? null : value.trim().charAt(0);
+            }
+        };
+
+        private final Class<?> type;
+
+        CellConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        abstract Object convert(SheetRow row, int column);
+    }
+
+    private final SheetLayout layout;
+
+    // Compiled layout, index-aligned: setters[i].accept(caseMaster, converters[i].convert(row, columns[i]))
+    private final int[] columns;
+    private final CellConverter[] converters;
+    private final BiConsumer<CaseMaster, Object>[] setters;
+
+    /**
+     * Maps the built-in layout (SheetLayout.defaults).
+     */
+    public CaseMasterRowMapper() {
+        this(SheetLayout.defaults());
+    }
+
+    @Autowired
+    @SuppressWarnings("unchecked")
+    public CaseMasterRowMapper(SheetLayout layout) {
+        this.layout = layout;
+        List<SheetLayout.ColumnMapping> mappings = layout.getColumns();
+        this.columns = new int[mappings.size()];
+        this.converters = new CellConverter[mappings.size()];
+        this.setters = (BiConsumer<CaseMaster, Object>[]) new BiConsumer<?, ?>[mappings.size()];
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < mappings.size(); i++) {
+            SheetLayout.ColumnMapping mapping = mappings.get(i);
+            columns[i] = mapping.column();
+            converters[i] = converter(mapping);
+            setters[i] = compileSetter(lookup, mapping, converters[i].type);
+        }
+    }
+
+    public SheetLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param row The parsed sheet row.
+     * @return A new CaseMaster with defaults from its constructor and values from the row.
+     */
+    public CaseMaster map(SheetRow row) {
+        CaseMaster caseMaster = new CaseMaster();
+        caseMaster.setSubmittedTs(row.getSubmittedTs()); // Set the SUBMITTED_TS from the header cell
+        caseMaster.setSourceRowIndex(row.getRowIndex());
+
+        for (int i = 0; i < columns.length; i++) {
+            setters[i].accept(caseMaster, converters[i].convert(row, columns[i]));
+        }
+
+        // Columns that are not mapped (e.g. H and I in the built-in layout) are ignored.
+        return caseMaster;
+    }
+
+    private static CellConverter converter(SheetLayout.ColumnMapping mapping) {
+        try {
+            return CellConverter.valueOf(mapping.converter().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown converter '" + mapping.converter() + "' for column "
+                    + mapping.columnLetter() + "; expected one of string, trim, upper, date, long, char.", e);
+        }
+    }
+
+    /**
+     * Generates a BiConsumer that calls the setter of the mapped field directly.
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<CaseMaster, Object> compileSetter(MethodHandles.Lookup lookup,
+                                                                SheetLayout.ColumnMapping mapping,
+                                                                Class<?> valueType) {
+        String field = mapping.field();
+        String setterName = "set" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        Class<?> fieldType;
+        try {
+            fieldType = CaseMaster.class.getDeclaredField(field).getType();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Column " + mapping.columnLetter() + " maps to unknown field CaseMaster."
+                    + field + ".", e);
+        }
+        if (!fieldType.isAssignableFrom(valueType)) {
+            throw new IllegalArgumentException("Column " + mapping.columnLetter() + ": converter " + mapping.converter()
+                    + " produces " + valueType.getSimpleName() + ", but CaseMaster." + field + " is "
+                    + fieldType.getSimpleName() + ".");
+        }
+        try {
+            MethodHandle setter = lookup.findVirtual(CaseMaster.class, setterName, MethodType.methodType(void.class, fieldType));
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), // Erased BiConsumer.accept
+                    setter,
+                    MethodType.methodType(void.class, CaseMaster.class, fieldType));
+            return (BiConsumer<CaseMaster, Object>) site.getTarget().invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("CaseMaster has no public " + setterName + "(" + fieldType.getSimpleName()
+                    + ") for column " + mapping.columnLetter() + ".", e);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to compile the setter for CaseMaster." + field + ": " + t.getMessage(), t);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes mapped CaseMaster rows to a local CSV or JSONL file, for dry runs. The columns are the
+ * persisted CaseMaster fields (those with @Column, except the generated @Id) named after their database
+ * columns, preceded by the sheet name and the 1-based sheet row, so the output shows exactly what an
+ * import would insert. Not thread-safe; one writer per file.
+ */
+public final class CaseMasterRowWriter implements Closeable {
+
+    private static final List<String> COLUMN_NAMES = new ArrayList<>();
+    private static final List<MethodHandle> GETTERS = new ArrayList<>();
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Field field : CaseMaster.class.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (column == null || field.isAnnotationPresent(Id.class)) {
+                continue;
+            }
+            String getterName = "get" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            try {
+                GETTERS.add(lookup.findVirtual(CaseMaster.class, getterName, MethodType.methodType(field.getType())));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("CaseMaster has no public " + getterName + "() for " + column.name() + ".", e);
+            }
+            COLUMN_NAMES.add(column.name());
+        }
+    }
+
+    private final BufferedWriter out;
+    private final boolean jsonl;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param file  The output file; replaced if it exists.
+     * @param jsonl True for one JSON object per line, false for CSV with a header row.
+     */
+    public CaseMasterRowWriter(Path file, boolean jsonl) throws IOException {
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.jsonl = jsonl;
+        if (!jsonl) {
+            line.append("SHEET,ROW");
+            for (String name : COLUMN_NAMES) {
+                line.append(',').append(name);
+            }
+            writeLine();
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException If the output cannot be written; called from row consumers.
+     */
+    public void write(String sheetName, CaseMaster caseMaster) {
+        if (jsonl) {
+            line.append("{\"SHEET\":");
+            appendJson(sheetName);
+            line.append(",\"ROW\":").append(caseMaster.getSourceRowIndex() + 1);
+            for (int i = 0; i < GETTERS.size(); i++) {
+                line.append(",\"").append(COLUMN_NAMES.get(i)).append("\":");
+                appendJson(value(i, caseMaster));
+            }
+            line.append('}');
+        } else {
+            appendCsv(sheetName);
+            line.append(',').append(caseMaster.getSourceRowIndex() + 1);
+            for (int i = 0; i < GETTERS.size(); i++) {
+                line.append(',');
+                appendCsv(value(i, caseMaster));
+            }
+        }
+        writeLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static String value(int column, CaseMaster caseMaster) {
+        try {
+            Object value = GETTERS.get(column).invoke(caseMaster);
+            return value != null ? value.toString() : null;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read " + COLUMN_NAMES.get(column) + ": " + t.getMessage(), t);
+        }
+    }
+
+    private void appendCsv(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"'); // Doubled, as in RFC 4180
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendJson(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void writeLine() {
+        try {
+            out.append(line).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the dry-run output: " + e.getMessage(), e);
+        }
+        line.setLength(0);
+    }
+}
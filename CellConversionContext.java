@@ -0,0 +1,78 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.Arrays;
+
+/**
+ * Per-workbook state for converting cells to values: one FormulaEvaluator, one DataFormatter,
+ * and the evaluated results of the formula cells in the current row.
+ * <p>
+ * Creating an evaluator per formula cell throws away POI's evaluation cache (so shared precedents
+ * are recomputed for every cell), and a DataFormatter per numeric cell re-parses format strings
+ * each time. One context per workbook keeps both caches warm, and the row cache means a formula
+ * cell converted twice in the same row (end-of-data check, then mapping) is evaluated once.
+ * <p>
+ * Not thread-safe; create one context per open workbook.
+ */
+public final class CellConversionContext {
+
+    private static final int MAX_CACHED_COLUMNS = 64; // Import layouts only use columns A to I
+
+    private final FormulaEvaluator evaluator;
+    private final DataFormatter formatter = new DataFormatter();
+
+    // Evaluated formula results of the current row, indexed by column
+    private final CellValue[] rowCache = new CellValue[MAX_CACHED_COLUMNS];
+    private Sheet cachedSheet;
+    private int cachedRowIndex = -1;
+
+    public CellConversionContext(Workbook workbook) {
+        this.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+    }
+
+    /**
+     * Evaluates a formula cell, reusing the result if the same cell was already evaluated in this row.
+     *
+     * @param cell A FORMULA cell.
+     * @return The evaluated value.
+     */
+    public CellValue evaluate(Cell cell) {
+        int column = cell.getColumnIndex();
+        if (column >= MAX_CACHED_COLUMNS) {
+            return evaluator.evaluate(cell);
+        }
+        if (cell.getRowIndex() != cachedRowIndex || cell.getSheet() != cachedSheet) {
+            Arrays.fill(rowCache, null); // Moved to a new row; previous results are no longer needed
+            cachedRowIndex = cell.getRowIndex();
+            cachedSheet = cell.getSheet();
+        }
+        CellValue value = rowCache[column];
+        if (value == null) {
+            value = evaluator.evaluate(cell);
+            rowCache[column] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Formats a non-formula cell the way Excel displays it.
+     */
+    public String formatCellValue(Cell cell) {
+        return formatter.formatCellValue(cell);
+    }
+
+    /**
+     * Formats an evaluated numeric formula result using the cell's own number format.
+     */
+    public String formatNumber(Cell cell, double value) {
+        CellStyle style = cell.getCellStyle();
+        return formatter.formatRawCellContents(value, style.getDataFormat(), style.getDataFormatString());
+    }
+}
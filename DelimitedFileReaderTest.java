@@ -0,0 +1,146 @@
+package com.ppi.utility.importer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DelimitedFileReaderTest {
+
+    // SUBMITTED_TS in D6, data from row 10 (SheetLayout.defaults)
+    private static final String HEADER = "\n\n\n\n\n,,,2024-01-15 10:30:00\n\n\n\n";
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void keepsQuotedDelimitersAndLineBreaksInTheField(boolean memoryMap) throws IOException {
+        List<SheetRow> rows = read(memoryMap, 1 << 20, HEADER
+                + ",\"REF,1\",\"two\nlines\",Smith\n"
+                + ",REF2,\"three\r\nlines\",Jones\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getValue(1)).isEqualTo("REF,1");
+        assertThat(rows.get(0).getValue(2)).isEqualTo("two\nlines");
+        assertThat(rows.get(0).getValue(3)).isEqualTo("Smith");
+        assertThat(rows.get(1).getValue(2)).isEqualTo("three\r\nlines");
+        assertThat(rows.get(1).getRowIndex()).isEqualTo(10);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void collapsesDoubledQuotes(boolean memoryMap) throws IOException {
+        List<SheetRow> rows = read(memoryMap, 1 << 20, HEADER + ",\"say \"\"hi\"\"\",\"\"\"\",\"\"\n");
+
+        assertThat(rows.get(0).getValue(1)).isEqualTo("say \"hi\"");
+        assertThat(rows.get(0).getValue(2)).isEqualTo("\"");
+        assertThat(rows.get(0).getValue(3)).isNull(); // An empty quoted field reads like a blank cell
+    }
+
+    @Test
+    void waitsForTheNextRegionWhenCrLfIsSplit() {
+        DelimitedFileReader.Tokenizer tokenizer = new DelimitedFileReader.Tokenizer((byte) ',', 9);
+        ByteBuffer region = ascii("a,b\r");
+
+        assertThat(tokenizer.record(region, 0, false)).isEqualTo(-1);
+        assertThat(tokenizer.record(ascii("a,b\r\nc"), 0, false)).isEqualTo(5);
+        assertThat(tokenizer.record(region, 0, true)).isEqualTo(4); // A trailing CR at the end of the file
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void readsCrLfFilesSplitAtEveryRegionBoundary(boolean memoryMap) throws IOException {
+        String content = (HEADER + ",R1,\"x\"\"y\",Smith\n,R2,\"a,\nb\",Jones\n,R3,,Brown\n").replace("\n", "\r\n");
+        List<String> expected = values(read(memoryMap, 1 << 20, content));
+        assertThat(expected).containsExactly("R1|x\"y|Smith", "R2|a,\r\nb|Jones", "R3|null|Brown");
+
+        // Small regions put a boundary between every CR and LF, and inside every quoted field and doubled quote
+        for (int regionSize = 2; regionSize <= 40; regionSize++) {
+            assertThat(values(read(memoryMap, regionSize, content))).as("region size %d", regionSize)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void growsTheRegionForARecordLongerThanIt(boolean memoryMap) throws IOException {
+        String longName = "N".repeat(5_000);
+        List<SheetRow> rows = read(memoryMap, 64, HEADER + ",R1,,\"" + longName + "\"\n,R2,,Short\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getValue(3)).isEqualTo(longName);
+        assertThat(rows.get(1).getValue(3)).isEqualTo("Short");
+    }
+
+    @Test
+    void needsMoreInputForAnUnterminatedQuoteBeforeTheEndOfTheFile() {
+        DelimitedFileReader.Tokenizer tokenizer = new DelimitedFileReader.Tokenizer((byte) ',', 9);
+
+        assertThat(tokenizer.record(ascii("a,\"open"), 0, false)).isEqualTo(-1);
+        assertThat(tokenizer.record(ascii("a,\"x\""), 0, false)).isEqualTo(-1); // Closing or doubled quote?
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void endsAnUnterminatedQuoteAtTheEndOfTheFile(boolean memoryMap) throws IOException {
+        List<SheetRow> rows = read(memoryMap, 16, HEADER + ",R1,,Smith\n,R2,,\"Jo\nnes");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1).getValue(3)).isEqualTo("Jo\nnes");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void stopsAtTheFirstBlankRow(boolean memoryMap) throws IOException {
+        Path file = write(HEADER + ",R1,,Smith\n,R2,,Jones\n, ,,\t,\n,R3,,Brown\n");
+        List<SheetRow> rows = new ArrayList<>();
+
+        int count = new DelimitedFileReader(new ImportMetrics(new SimpleMeterRegistry()), memoryMap, 8)
+                .read(file.toFile(), rows::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(values(rows)).containsExactly("R1|null|Smith", "R2|null|Jones");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void treatsAnEmptyLineAsTheEndOfData(boolean memoryMap) throws IOException {
+        List<SheetRow> rows = read(memoryMap, 1 << 20, HEADER + ",R1,,Smith\r\n\r\n,R2,,Jones\r\n");
+
+        assertThat(values(rows)).containsExactly("R1|null|Smith");
+    }
+
+    private List<SheetRow> read(boolean memoryMap, int regionSize, String content) throws IOException {
+        Path file = write(content);
+        List<SheetRow> rows = new ArrayList<>();
+        new DelimitedFileReader(new ImportMetrics(new SimpleMeterRegistry()), memoryMap, regionSize)
+                .read(file.toFile(), rows::add);
+        return rows;
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(dir, "cases", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> values(List<SheetRow> rows) {
+        return rows.stream().map(row -> row.getValue(1) + "|" + row.getValue(2) + "|" + row.getValue(3)).toList();
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
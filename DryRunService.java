@@ -0,0 +1,138 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Service class for parse-only ("dry") runs: the full read, map, duplicate check and validation path of
+ * an import, without a database. Every sheet is read once; each row is validated by ValidationService
+ * and mapped by CaseMasterRowMapper, and the mapped rows are written to a local CSV or JSONL file
+ * (CaseMasterRowWriter) or discarded, as set by {@code importer.dry-run.output}.
+ * <p>
+ * Nothing here touches CaseMasterBatchWriter or a repository, so a dry run isolates parsing performance
+ * and can pre-check files of any size. Validation errors are reported as usual, next to the input.
+ */
+@Service
+public class DryRunService {
+
+    public enum Output {
+        NONE, CSV, JSONL
+    }
+
+    private final ExcelService excelService;
+    private final CaseMasterRowMapper rowMapper;
+    private final ValidationService validationService;
+    private final DuplicateDetector duplicateDetector;
+    private final Output defaultOutput;
+    private final String outputDir;
+
+    @Autowired
+    public DryRunService(ExcelService excelService,
+                         CaseMasterRowMapper rowMapper,
+                         ValidationService validationService,
+                         DuplicateDetector duplicateDetector,
+                         @Value("${importer.dry-run.output:none}") String output,
+                         @Value("${importer.dry-run.output-dir:}") String outputDir) {
+        this.excelService = excelService;
+        this.rowMapper = rowMapper;
+        this.validationService = validationService;
+        this.duplicateDetector = duplicateDetector;
+        this.defaultOutput = Output.valueOf(output.trim().toUpperCase());
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Dry-runs one file with the configured output.
+     */
+    public DryRunResult run(File file) throws IOException {
+        return run(file, defaultOutput);
+    }
+
+    /**
+     * Reads, maps and validates every sheet of the file without touching the database.
+     *
+     * @param file   The input file.
+     * @param output Where the mapped rows go.
+     * @return Row counts, the validation outcome and the output file (null for NONE).
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public DryRunResult run(File file, Output output) throws IOException {
+        long start = System.nanoTime();
+        List<String> sheetNames = excelService.getSheetNames(file);
+        Path outputFile = output == Output.NONE ? null : outputPath(file, output);
+        DuplicateDetector.Check duplicateCheck = duplicateDetector.start(file.getName());
+        int[] rowsMapped = {0};
+
+        ValidationReport validation;
+        try (CaseMasterRowWriter writer = output == Output.NONE ? null
+                : new CaseMasterRowWriter(outputFile, output == Output.JSONL)) {
+            // One pass per sheet: each row feeds the validator and, mapped, the output
+            validation = validationService.validate(file, sheetNames, (sheetIndex, rowConsumer) ->
+                    excelService.readSheetRows(file, sheetIndex, row -> {
+                        rowConsumer.accept(row);
+                        CaseMaster caseMaster = rowMapper.map(row);
+                        if (duplicateCheck.test(caseMaster)) {
+                            rowsMapped[0]++;
+                            if (writer != null) {
+                                writer.write(sheetNames.get(sheetIndex), caseMaster);
+                            }
+                        }
+                    }));
+        }
+        duplicateCheck.finish();
+
+        DryRunResult result = new DryRunResult(file, sheetNames.size(), validation.rowsChecked(), rowsMapped[0],
+                duplicateCheck.getDuplicates(), validation, outputFile, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("[" + file.getName() + "] " + result.summary());
+        return result;
+    }
+
+    /**
+     * {@code <name>.dryrun.csv|jsonl}, next to the input or in {@code importer.dry-run.output-dir}.
+     * BatchImportService.isImportable skips these names, so outputs are never imported by accident.
+     */
+    private Path outputPath(File input, Output output) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        String fileName = (dot > 0 ? name.substring(0, dot) : name) + ".dryrun." + output.name().toLowerCase();
+        Path dir = outputDir.isBlank() ? input.toPath().toAbsolutePath().getParent() : Path.of(outputDir);
+        return dir.resolve(fileName);
+    }
+
+    /**
+     * Outcome of a dry run of one file.
+     *
+     * @param file        The input file.
+     * @param sheets      Sheets read.
+     * @param rowsRead    Data rows read across all sheets.
+     * @param rowsMapped  Rows that would be written (rows read less dropped duplicates).
+     * @param duplicates  Rows whose key was already seen in the file (see DuplicateDetector).
+     * @param validation  The validation outcome; its report is written next to the input as usual.
+     * @param outputFile  The CSV/JSONL file the mapped rows were written to, or null when discarded.
+     * @param elapsedMs   Wall-clock time of the dry run.
+     */
+    public record DryRunResult(File file, int sheets, int rowsRead, int rowsMapped, int duplicates,
+                               ValidationReport validation, Path outputFile, long elapsedMs) {
+
+        public double rowsPerSecond() {
+            return rowsRead * 1000.0 / Math.max(1, elapsedMs);
+        }
+
+        /**
+         * One-line summary suitable for the UI status label.
+         */
+        public String summary() {
+            return String.format("Dry run: %,d rows read, %,d mapped from %d sheet(s) in %d ms (%,.0f rows/s); %s%s",
+                    rowsRead, rowsMapped, sheets, elapsedMs, rowsPerSecond(),
+                    validation.valid() ? "valid" : validation.errorCount() + " validation error(s)",
+                    outputFile != null ? "; rows written to " + outputFile.getFileName() : "");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In-memory duplicate detection for an import run, keyed on THIRD_PARTY_REFERENCE_1/2, LAST_NAME and
+ * DATE_OF_BIRTH. Controlled by {@code importer.dedup.mode}:
+ * <ul>
+ *   <li>off: rows are not checked</li>
+ *   <li>flag: duplicates are counted and logged, but still written</li>
+ *   <li>drop: duplicates are counted, logged and not written</li>
+ * </ul>
+ * A run covers one upload or one batch of files, so duplicates are found within a sheet, across sheets
+ * and across files. Rows already in the database are not consulted; use the merge persistence mode for that.
+ */
+@Component
+public class DuplicateDetector {
+
+    private static final int LOGGED_DUPLICATES = 20; // Per run; the count is always complete
+
+    public enum Mode {
+        OFF, FLAG, DROP
+    }
+
+    private final Mode mode;
+    private final boolean bloomFilter;
+    private final int expectedRows;
+    private final ImportMetrics importMetrics;
+
+    @Autowired
+    public DuplicateDetector(ImportMetrics importMetrics,
+                             @Value("${importer.dedup.mode:off}") String mode,
+                             @Value("${importer.dedup.bloom-filter:false}") boolean bloomFilter,
+                             @Value("${importer.dedup.expected-rows:100000}") int expectedRows) {
+        this.importMetrics = importMetrics;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.bloomFilter = bloomFilter;
+        this.expectedRows = Math.max(16, expectedRows);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts a run with an empty index.
+     *
+     * @param runName Name used in log output (the file name, or "batch").
+     * @return The filter to apply to every mapped row of the run; it is thread-safe.
+     */
+    public Check start(String runName) {
+        return new Check(runName, mode == Mode.OFF ? null : new DuplicateIndex(expectedRows, bloomFilter));
+    }
+
+    /**
+     * Duplicate filter of one run: returns false for rows that should not be written.
+     */
+    public final class Check implements Predicate<CaseMaster> {
+        private final String runName;
+        private final DuplicateIndex index; // Null when detection is off
+        private final AtomicInteger duplicates = new AtomicInteger();
+
+        private Check(String runName, DuplicateIndex index) {
+            this.runName = runName;
+            this.index = index;
+        }
+
+        @Override
+        public boolean test(CaseMaster caseMaster) {
+            if (index == null || index.add(caseMaster.getThirdPartyReference1(), caseMaster.getThirdPartyReference2(),
+                    caseMaster.getLastName(), caseMaster.getDateOfBirth())) {
+                return true;
+            }
+            importMetrics.rowDuplicate();
+            if (duplicates.incrementAndGet() <= LOGGED_DUPLICATES) {
+                System.out.println("[" + runName + "] Duplicate " + (mode == Mode.DROP ? "dropped" : "flagged") + ": "
+                        + caseMaster.getThirdPartyReference1() + " / " + caseMaster.getThirdPartyReference2() + " / "
+                        + caseMaster.getLastName() + " / " + caseMaster.getDateOfBirth());
+            }
+            return mode != Mode.DROP;
+        }
+
+        public int getDuplicates() {
+            return duplicates.get();
+        }
+
+        /**
+         * @return True if duplicates were left out of the import rather than just counted.
+         */
+        public boolean isDropping() {
+            return mode == Mode.DROP;
+        }
+
+        /**
+         * Logs the totals of the run and the memory the index used.
+         */
+        public void finish() {
+            if (index != null) {
+                System.out.println("[" + runName + "] Duplicate check: " + index.size() + " distinct keys, "
+                        + duplicates.get() + " duplicate(s) " + (mode == Mode.DROP ? "dropped" : "flagged") + ", index "
+                        + index.memoryBytes() / 1024 + " KB");
+            }
+        }
+    }
+}
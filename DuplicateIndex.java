@@ -0,0 +1,195 @@
+package com.ppi.utility.importer.service;
+
+import java.time.LocalDate;
+
+/**
+ * Compact set of case keys (third-party references, last name, date of birth) used to spot duplicate
+ * rows within and across the files of one import run.
+ * <p>
+ * Each key is hashed into a single 64-bit value, and the values are kept in an open-addressing table of
+ * primitive longs with linear probing, so an entry costs 8 bytes (about 11-21 bytes per row including the
+ * free slots of a table kept at most 75% full) and no objects are allocated per row. With 64-bit keys a
+ * false match is negligible (about 3 in 100 million for a million distinct rows).
+ * <p>
+ * An optional Bloom filter (about 10 bits per expected row) sits in front of the table: most rows are
+ * unique, and for those the filter answers from a small, cache-friendly bit array without probing the
+ * much larger table.
+ * <p>
+ * Thread-safe; parallel sheet readers of a batch import share one index.
+ */
+public final class DuplicateIndex {
+
+    private static final long EMPTY = 0L;        // Free slot marker; a real key of 0 is tracked separately
+    private static final int BLOOM_HASHES = 7;   // Optimal for 10 bits per entry (~1% false positives)
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+    private final long[] bloom; // Null when the Bloom filter is disabled
+    private final long bloomBits;
+
+    /**
+     * @param expectedRows Rows the run is expected to contain; sizes the table and the Bloom filter.
+     * @param bloomFilter  Whether to put a Bloom filter in front of the table.
+     */
+    public DuplicateIndex(int expectedRows, boolean bloomFilter) {
+        long slots = Math.min(1L << 29, Math.max(16L, expectedRows) * 4 / 3);
+        this.table = new long[Integer.highestOneBit((int) slots) << 1]; // Power of two, <= 75% full
+        if (bloomFilter) {
+            long words = Math.max(1, ((long) Math.max(16, expectedRows) * BLOOM_BITS_PER_ENTRY + 63) / 64);
+            this.bloom = new long[(int) Math.min(words, Integer.MAX_VALUE - 8)];
+            this.bloomBits = (long) bloom.length * 64;
+        } else {
+            this.bloom = null;
+            this.bloomBits = 0;
+        }
+    }
+
+    /**
+     * Records the key of a row.
+     *
+     * @return true if the key was new, false if an equal key was already recorded (a duplicate).
+     */
+    public boolean add(String reference1, String reference2, String lastName, LocalDate dateOfBirth) {
+        return add(hash(reference1, reference2, lastName, dateOfBirth));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the index, for logging.
+     */
+    public synchronized long memoryBytes() {
+        return (long) table.length * 8 + (bloom != null ? (long) bloom.length * 8 : 0);
+    }
+
+    synchronized boolean add(long key) {
+        if (bloom != null && !bloomMightContain(key)) {
+            bloomPut(key); // Definitely new: skip the probe for an existing entry
+            insertNew(key);
+            return true;
+        }
+        if (key == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = spread(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (bloom != null) {
+            bloomPut(key);
+        }
+        table[slot] = key;
+        if (++size > table.length * 3L / 4) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Inserts a key known not to be present.
+     */
+    private void insertNew(long key) {
+        if (key == EMPTY) {
+            containsZero = true;
+        } else {
+            int mask = table.length - 1;
+            int slot = spread(key) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+        }
+        if (++size > table.length * 3L / 4) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        long[] old = table;
+        table = new long[old.length << 1];
+        int mask = table.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = spread(key) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = key;
+            }
+        }
+    }
+
+    private boolean bloomMightContain(long key) {
+        long h1 = key;
+        long h2 = Long.rotateLeft(key, 32) | 1; // Odd, so successive probes cover the whole array
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bloomBits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void bloomPut(long key) {
+        long h1 = key;
+        long h2 = Long.rotateLeft(key, 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bloomBits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static int spread(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * 64-bit FNV-1a over the trimmed, upper-cased fields, finished with the MurmurHash3 mixer.
+     * Null and blank fields hash alike, and a separator between fields keeps "AB"+"C" apart from "A"+"BC".
+     */
+    static long hash(String reference1, String reference2, String lastName, LocalDate dateOfBirth) {
+        long h = 0xcbf29ce484222325L;
+        h = hashField(h, reference1);
+        h = hashField(h, reference2);
+        h = hashField(h, lastName);
+        h = (h ^ (dateOfBirth != null ? dateOfBirth.toEpochDay() : Long.MIN_VALUE)) * 0x100000001b3L;
+        // fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long hashField(long h, String value) {
+        if (value != null) {
+            int start = 0;
+            int end = value.length();
+            while (start < end && Character.isWhitespace(value.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+                end--;
+            }
+            for (int i = start; i < end; i++) {
+                h = (h ^ Character.toUpperCase(value.charAt(i))) * 0x100000001b3L;
+            }
+        }
+        return (h ^ 0x1F) * 0x100000001b3L; // Field separator (ASCII unit separator)
+    }
+}
@@ -0,0 +1,124 @@
+package com.ppi.utility.importer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateIndexTest {
+
+    private static final LocalDate DOB = LocalDate.of(1980, 5, 17);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void reportsRepeatedKeysAsDuplicates(boolean bloomFilter) {
+        DuplicateIndex index = new DuplicateIndex(100, bloomFilter);
+
+        assertThat(index.add("REF1", "REF2", "Smith", DOB)).isTrue();
+        assertThat(index.add("REF1", "REF2", "Jones", DOB)).isTrue();
+        assertThat(index.add("REF1", "REF2", "Smith", DOB)).isFalse();
+        assertThat(index.add("REF1", "REF2", "Smith", DOB.plusDays(1))).isTrue();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void normalisesFieldsBeforeHashing() {
+        long key = DuplicateIndex.hash("ref1", "ref2", "smith", DOB);
+
+        assertThat(DuplicateIndex.hash("  REF1 ", "Ref2", "SMITH\t", DOB)).isEqualTo(key);
+        assertThat(DuplicateIndex.hash(null, "ref2", "smith", DOB)).isEqualTo(DuplicateIndex.hash("   ", "ref2", "smith", DOB));
+        assertThat(DuplicateIndex.hash("ref1", "ref2", "smith", null)).isNotEqualTo(key);
+    }
+
+    @Test
+    void separatesFieldBoundaries() {
+        assertThat(DuplicateIndex.hash("AB", "C", null, DOB)).isNotEqualTo(DuplicateIndex.hash("A", "BC", null, DOB));
+        assertThat(DuplicateIndex.hash("A", null, null, DOB)).isNotEqualTo(DuplicateIndex.hash(null, "A", null, DOB));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void probesPastCollidingSlots(boolean bloomFilter) {
+        // Sized for 16 rows the table has 32 slots; multiples of 64 all land in slot 0
+        DuplicateIndex index = new DuplicateIndex(16, bloomFilter);
+        for (long i = 1; i <= 20; i++) {
+            assertThat(index.add(i * 64)).as("key %d", i * 64).isTrue();
+        }
+        for (long i = 1; i <= 20; i++) {
+            assertThat(index.add(i * 64)).as("key %d", i * 64).isFalse();
+        }
+        assertThat(index.add(21 * 64)).isTrue();
+        assertThat(index.size()).isEqualTo(21);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void probesAroundTheEndOfTheTable(boolean bloomFilter) {
+        DuplicateIndex index = new DuplicateIndex(16, bloomFilter);
+        // All start at the last slot, so the chain wraps to slot 0
+        long[] keys = {31, 31 + 64, 31 + 128, 31 + 192};
+        for (long key : keys) {
+            assertThat(index.add(key)).isTrue();
+        }
+        for (long key : keys) {
+            assertThat(index.add(key)).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void tracksTheZeroKeySeparately(boolean bloomFilter) {
+        DuplicateIndex index = new DuplicateIndex(16, bloomFilter);
+
+        assertThat(index.add(0L)).isTrue();
+        assertThat(index.add(0L)).isFalse();
+        assertThat(index.add(64L)).isTrue(); // Slot 0 is still free for a real key
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void keepsEveryKeyWhenGrowingPastTheExpectedRows(boolean bloomFilter) {
+        DuplicateIndex index = new DuplicateIndex(16, bloomFilter);
+        long before = index.memoryBytes();
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(index.add(key * 0x9E3779B97F4A7C15L)).isTrue();
+        }
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(index.add(key * 0x9E3779B97F4A7C15L)).isFalse();
+        }
+        assertThat(index.size()).isEqualTo(10_000);
+        assertThat(index.memoryBytes()).isGreaterThan(before);
+    }
+
+    @Test
+    void bloomFilterDoesNotChangeTheAnswers() {
+        // A filter sized for 1,000 rows saturates long before 50,000, so later keys mostly pass it and are probed
+        DuplicateIndex withBloom = new DuplicateIndex(1_000, true);
+        DuplicateIndex withoutBloom = new DuplicateIndex(1_000, false);
+        Set<Long> expected = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextLong(20_000); // Roughly half the keys repeat
+            boolean isNew = expected.add(key);
+            assertThat(withBloom.add(key)).as("key %d", key).isEqualTo(isNew);
+            assertThat(withoutBloom.add(key)).as("key %d", key).isEqualTo(isNew);
+        }
+        assertThat(withBloom.size()).isEqualTo(expected.size());
+        assertThat(withoutBloom.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void bloomFilterAddsAboutTenBitsPerExpectedRow() {
+        long tableOnly = new DuplicateIndex(100_000, false).memoryBytes();
+        long withBloom = new DuplicateIndex(100_000, true).memoryBytes();
+
+        assertThat(withBloom - tableOnly).isEqualTo((100_000L * 10 + 63) / 64 * 8);
+    }
+}
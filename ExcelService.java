@@ -1,10 +1,10 @@
 package com.ppi.utility.importer.service;
 
 import com.ppi.utility.importer.model.CaseMaster;
-import com.ppi.utility.importer.repository.CaseMasterRepository;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,11 +12,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Service class responsible for parsing Excel files and inserting data into the database.
@@ -24,15 +25,56 @@ import java.util.List;
 @Service
 public class ExcelService {
 
-    private final CaseMasterRepository caseMasterRepository;
+    private final CaseMasterBatchWriter caseMasterBatchWriter;
+    private final StreamingExcelReader streamingExcelReader;
+    private final StreamingXlsReader streamingXlsReader;
+    private final DelimitedFileReader delimitedFileReader;
+    private final CaseMasterRowMapper rowMapper;
+    private final ImportPipeline importPipeline;
+    private final ImportMetrics importMetrics;
+    private final DuplicateDetector duplicateDetector;
+    private final ImportJournal importJournal;
+    private final ValidationService validationService;
+
+    @Value("${importer.excel.streaming-reader:true}")
+    private boolean streamingReaderEnabled; // Use the SAX-based reader for .xlsx files
+
+    @Value("${importer.validation.before-import:false}")
+    private boolean validateBeforeImport; // Reject files with validation errors before any database work
 
     @Autowired
-    public ExcelService(CaseMasterRepository caseMasterRepository) {
-        this.caseMasterRepository = caseMasterRepository;
+    public ExcelService(CaseMasterBatchWriter caseMasterBatchWriter,
+                        StreamingExcelReader streamingExcelReader,
+                        StreamingXlsReader streamingXlsReader,
+                        DelimitedFileReader delimitedFileReader,
+                        CaseMasterRowMapper rowMapper,
+                        ImportPipeline importPipeline,
+                        ImportMetrics importMetrics,
+                        DuplicateDetector duplicateDetector,
+                        ImportJournal importJournal,
+                        ValidationService validationService) {
+        this.caseMasterBatchWriter = caseMasterBatchWriter;
+        this.streamingExcelReader = streamingExcelReader;
+        this.streamingXlsReader = streamingXlsReader;
+        this.delimitedFileReader = delimitedFileReader;
+        this.rowMapper = rowMapper;
+        this.importPipeline = importPipeline;
+        this.importMetrics = importMetrics;
+        this.duplicateDetector = duplicateDetector;
+        this.importJournal = importJournal;
+        this.validationService = validationService;
+    }
+
+    /**
+     * @return True if single-file uploads should go through processExcelFileCheckpointed.
+     */
+    public boolean isCheckpointEnabled() {
+        return importJournal.isEnabled();
     }
 
     /**
      * Processes the given Excel file, extracts data, and saves it to the database.
+     * In merge mode each chunk commits on its own (see CaseMasterBatchWriter.begin).
      *
      * @param excelFile The Excel file to process.
      * @return A message indicating the success or failure of the operation.
@@ -41,96 +83,50 @@ public class ExcelService {
      */
     @Transactional // Ensures that all database operations within this method are part of a single transaction.
     public String processExcelFile(File excelFile) throws IOException, Exception {
-        List<CaseMaster> caseMasters = new ArrayList<>();
-        Timestamp submittedTs = null;
+        // Rows are persisted chunk by chunk as they are read, instead of being collected into one list
+        CaseMasterBatchWriter.ChunkedInsert chunkedInsert = caseMasterBatchWriter.begin(excelFile.getName());
+        AtomicInteger rowsRead = new AtomicInteger();
+        DuplicateDetector.Check duplicateCheck = duplicateDetector.start(excelFile.getName());
+        importMetrics.timeCommit();
 
-        try (FileInputStream fis = new FileInputStream(excelFile);
-             Workbook workbook = new XSSFWorkbook(fis)) { // For .xlsx files
+        try {
+            requireValid(excelFile);
 
-            Sheet sheet = workbook.getSheetAt(0); // Get the first sheet
+            // Parsing, mapping and writing overlap through bounded queues; the writer stays in this transaction
+            importPipeline.run(excelFile.getName(),
+                    rowConsumer -> readSheetRows(excelFile, 0, row -> { // Only the first sheet is imported here
+                        rowsRead.incrementAndGet();
+                        rowConsumer.accept(row);
+                    }),
+                    duplicateCheck,
+                    chunkedInsert);
 
-            // 1. Parse Cell D6 for SUBMITTED_TS
-            Row rowD6 = sheet.getRow(5); // D6 is row index 5 (0-indexed)
-            if (rowD6 == null) {
-                throw new IllegalArgumentException("Excel file is empty or does not have data in row 6 (D6).");
+            int recordCount = chunkedInsert.finish(); // Write the last, partially filled chunk
+            duplicateCheck.finish();
+            if (recordCount == 0 && duplicateCheck.getDuplicates() == 0) {
+                return "No valid data rows found in the Excel file from row " + (rowMapper.getLayout().getFirstDataRow() + 1) + " onwards.";
             }
-            Cell cellD6 = rowD6.getCell(3); // D is column index 3 (0-indexed)
 
-            if (cellD6 != null && cellD6.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cellD6)) {
-                Date dateD6 = cellD6.getDateCellValue();
-                submittedTs = new Timestamp(dateD6.getTime());
-            } else {
-                throw new IllegalArgumentException("Cell D6 must contain a valid date/time value.");
+            String message = "Upload successful! Processed " + recordCount + " records";
+            if (caseMasterBatchWriter.getMode() == CaseMasterBatchWriter.PersistenceMode.MERGE) {
+                message += " (" + chunkedInsert.getCounts() + ")";
             }
-
-            // 2. Parse Rows 10 onward (until blank) -> Columns B to I
-            // Rows 10 onward means starting from row index 9 (0-indexed)
-            for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row currentRow = sheet.getRow(rowIndex);
-
-                // Stop if the row is null or if critical cells (e.g., B, C, D, E) are blank
-                // Check if the first cell (B) is blank to determine end of data
-                if (currentRow == null || isRowEmpty(currentRow, 1, 8)) { // Check columns B to I (index 1 to 8)
-                    break;
-                }
-
-                CaseMaster caseMaster = new CaseMaster();
-                caseMaster.setSubmittedTs(submittedTs); // Set the SUBMITTED_TS from D6
-
-                // Fetch data from Excel columns B to I
-                // B: THIRD_PARTY_REFERENCE_1 (index 1)
-                // C: THIRD_PARTY_REFERENCE_2 (index 2)
-                // D: LAST_NAME (index 3)
-                // E: FIRST_NAME (index 4)
-                // F: DATE_OF_BIRTH (index 5)
-                // G: POST_CODE (index 6)
-                // H: (not specified, but within B-I range, will be skipped or set to null if not used)
-                // I: (not specified, but within B-I range, will be skipped or set to null if not used)
-
-                // Column B: THIRD_PARTY_REFERENCE_1
-                caseMaster.setThirdPartyReference1(getCellValueAsString(currentRow.getCell(1)));
-                // Column C: THIRD_PARTY_REFERENCE_2
-                caseMaster.setThirdPartyReference2(getCellValueAsString(currentRow.getCell(2)));
-                // Column D: LAST_NAME
-                caseMaster.setLastName(getCellValueAsString(currentRow.getCell(3)));
-                // Column E: FIRST_NAME
-                caseMaster.setFirstName(getCellValueAsString(currentRow.getCell(4)));
-
-                // Column F: DATE_OF_BIRTH
-                Cell dobCell = currentRow.getCell(5);
-                if (dobCell != null && dobCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dobCell)) {
-                    Date dobDate = dobCell.getDateCellValue();
-                    caseMaster.setDateOfBirth(dobDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-                } else {
-                    // Handle cases where DOB is missing or not in date format
-                    caseMaster.setDateOfBirth(null); // Or throw an error if DOB is mandatory
-                }
-
-                // Column G: POST_CODE
-                caseMaster.setPostCode(getCellValueAsString(currentRow.getCell(6)));
-
-                // Columns H and I are not mapped to specific fields based on your schema.
-                // If they contain data, they will be ignored as no corresponding setters exist.
-
-                caseMasters.add(caseMaster);
+            if (duplicateCheck.getDuplicates() > 0) {
+                message += "; " + duplicateCheck.getDuplicates() + " duplicate row(s) "
+                        + (duplicateCheck.isDropping() ? "skipped" : "found");
             }
-
-            if (caseMasters.isEmpty()) {
-                return "No valid data rows found in the Excel file from row 10 onwards.";
-            }
-
-            // Save all entities in a single batch transaction
-            caseMasterRepository.saveAll(caseMasters);
-
-            return "Upload successful! Processed " + caseMasters.size() + " records.";
+            return message + ".";
 
         } catch (IOException e) {
+            importMetrics.rowsRejected(rowsRead.get()); // The whole transaction rolls back
             System.err.println("Error reading Excel file: " + e.getMessage());
             throw new IOException("Failed to read Excel file: " + e.getMessage(), e);
         } catch (IllegalArgumentException e) {
+            importMetrics.rowsRejected(rowsRead.get()); // The whole transaction rolls back
             System.err.println("Excel parsing error: " + e.getMessage());
             throw new Exception("Excel file format error: " + e.getMessage(), e);
         } catch (Exception e) {
+            importMetrics.rowsRejected(rowsRead.get()); // The whole transaction rolls back
             System.err.println("An unexpected error occurred during Excel processing or database insertion: " + e.getMessage());
             e.printStackTrace();
             throw new Exception("An unexpected error occurred: " + e.getMessage(), e);
@@ -138,65 +134,316 @@ public class ExcelService {
     }
 
     /**
-     * Helper method to get cell value as String, handling different cell types.
+     * Processes the given Excel file like processExcelFile, but commits every chunk on its own and records
+     * the last committed row in the ImportJournal, in the same transaction as the chunk. If an earlier run of
+     * the same file (same content) failed, rows up to its checkpoint are skipped, so a re-run only repeats the
+     * chunk that failed and never one that was committed.
+     * Skipped rows are still parsed and passed through the duplicate check, but not written.
+     * <p>
+     * Not transactional on purpose: a failure keeps the chunks that were already committed.
      *
-     * @param cell The Excel cell.
-     * @return The string representation of the cell value, or null if cell is null or blank.
+     * @param excelFile The Excel file to process.
+     * @return A message indicating the success or failure of the operation.
+     * @throws IOException If there's an error reading the file or the journal.
+     * @throws Exception   For any other processing errors; the message says where a re-run will resume.
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
+    public String processExcelFileCheckpointed(File excelFile) throws IOException, Exception {
+        String fileHash = importJournal.hash(excelFile);
+        ImportJournal.Checkpoint[] checkpoint = {importJournal.load(fileHash, excelFile.getName(), 0)};
+        if (checkpoint[0].complete()) {
+            return "Already imported: " + checkpoint[0].rowsWritten() + " records from this file were committed on "
+                    + checkpoint[0].updated() + ". Delete its IMPORT_CHECKPOINT rows to import it again.";
         }
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> {
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    // If it's a date formatted numeric cell, convert to string representation of date
-                    yield cell.getDateCellValue().toString(); // Or format it as needed
-                } else {
-                    // For general numbers, return as string to avoid scientific notation issues
-                    yield String.valueOf((long) cell.getNumericCellValue());
-                }
+        int resumeAfter = checkpoint[0].lastRowIndex();
+        if (checkpoint[0].isResumed()) {
+            System.out.println("[" + excelFile.getName() + "] Resuming after sheet row " + (resumeAfter + 1)
+                    + " (" + checkpoint[0].rowsWritten() + " records already committed)");
+        }
+
+        CaseMasterBatchWriter.ChunkedInsert chunkedInsert = caseMasterBatchWriter.beginCommitted(excelFile.getName(),
+                (chunk, counts) -> {
+                    // Part of the chunk's transaction
+                    checkpoint[0] = checkpoint[0].advance(chunk.get(chunk.size() - 1).getSourceRowIndex(), counts.total());
+                    importJournal.save(checkpoint[0]);
+                });
+        AtomicInteger rowsRead = new AtomicInteger(); // Rows after the checkpoint
+        DuplicateDetector.Check duplicateCheck = duplicateDetector.start(excelFile.getName());
+
+        try {
+            requireValid(excelFile);
+
+            importPipeline.run(excelFile.getName(),
+                    rowConsumer -> readSheetRows(excelFile, 0, row -> {
+                        if (row.getRowIndex() > resumeAfter) {
+                            rowsRead.incrementAndGet();
+                        }
+                        rowConsumer.accept(row);
+                    }),
+                    // Check every row so duplicates of already committed rows are still caught
+                    caseMaster -> duplicateCheck.test(caseMaster) && caseMaster.getSourceRowIndex() > resumeAfter,
+                    chunkedInsert);
+
+            chunkedInsert.finish(); // Commit the last, partially filled chunk
+            duplicateCheck.finish();
+            checkpoint[0] = checkpoint[0].completed();
+            importJournal.save(checkpoint[0]);
+
+            int recordCount = checkpoint[0].rowsWritten();
+            if (recordCount == 0 && duplicateCheck.getDuplicates() == 0) {
+                return "No valid data rows found in the Excel file from row " + (rowMapper.getLayout().getFirstDataRow() + 1) + " onwards.";
+            }
+            String message = "Upload successful! Processed " + recordCount + " records";
+            if (resumeAfter >= 0) {
+                message += " (" + chunkedInsert.getRowsWritten() + " after resuming at row " + (resumeAfter + 2) + ")";
+            }
+            if (duplicateCheck.getDuplicates() > 0) {
+                message += "; " + duplicateCheck.getDuplicates() + " duplicate row(s) "
+                        + (duplicateCheck.isDropping() ? "skipped" : "found");
+            }
+            return message + ".";
+
+        } catch (Exception e) {
+            importMetrics.rowsRejected(rowsRead.get() - chunkedInsert.getRowsWritten()); // Only the failed chunk and later rows
+            try {
+                checkpoint[0] = importJournal.load(fileHash, excelFile.getName(), 0); // What actually committed
+            } catch (RuntimeException loadFailure) {
+                // Database unavailable; report the last checkpoint seen
+            }
+            String resume = checkpoint[0].isResumed()
+                    ? checkpoint[0].rowsWritten() + " records are committed; re-run the same file to resume at row "
+                    + (checkpoint[0].lastRowIndex() + 2) + "."
+                    : "Nothing was committed.";
+            System.err.println("Checkpointed import of " + excelFile.getName() + " failed: " + e.getMessage() + " " + resume);
+            if (e instanceof IOException) {
+                throw new IOException("Failed to read Excel file: " + e.getMessage() + " " + resume, e);
             }
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> {
-                // Evaluate formula cells to get their result
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue cellValue = evaluator.evaluate(cell);
-                yield switch (cellValue.getCellType()) {
-                    case STRING -> cellValue.getStringValue();
-                    case NUMERIC -> String.valueOf(cellValue.getNumberValue());
-                    case BOOLEAN -> String.valueOf(cellValue.getBooleanValue());
-                    case ERROR -> "ERROR";
-                    default -> null;
-                };
+            if (e instanceof IllegalArgumentException) {
+                throw new Exception("Excel file format error: " + e.getMessage() + " " + resume, e);
             }
-            case BLANK, ERROR -> null;
-            default -> null;
-        };
+            e.printStackTrace();
+            throw new Exception("An unexpected error occurred: " + e.getMessage() + " " + resume, e);
+        }
+    }
+
+    /**
+     * Validates every sheet of the given file against the RowValidator rules, without touching the database,
+     * and writes an error report next to the file if anything is wrong.
+     *
+     * @param excelFile The Excel file to validate.
+     * @return The violations found, and where the report was written.
+     * @throws IOException If there's an error reading the file or writing the report.
+     */
+    public ValidationReport validateFile(File excelFile) throws IOException {
+        ImportProgress progress = ImportJob.currentProgress();
+        return validationService.validate(excelFile, getSheetNames(excelFile),
+                (sheetIndex, rowConsumer) -> readRows(excelFile, sheetIndex, row -> {
+                    progress.rowParsed(); // The job's progress only; the import metrics count imported rows
+                    rowConsumer.accept(row);
+                }));
     }
 
     /**
-     * Checks if a row is effectively empty within a given range of columns.
+     * Validates every sheet like validateFile, as the first pass of an import that then reads the file again.
+     * Neither the import metrics nor the job's progress count this pass, so row counts, rates and the
+     * progress bar describe the import alone.
      *
-     * @param row The row to check.
-     * @param startColIndex The starting column index (inclusive).
-     * @param endColIndex The ending column index (inclusive).
-     * @return true if all cells in the specified range are null or blank, false otherwise.
+     * @param excelFile The Excel file to validate.
+     * @return The violations found, and where the report was written.
+     * @throws IOException If there's an error reading the file or writing the report.
      */
-    private boolean isRowEmpty(Row row, int startColIndex, int endColIndex) {
-        if (row == null) {
-            return true;
+    public ValidationReport validateForImport(File excelFile) throws IOException {
+        return validateUncounted(excelFile, getSheetNames(excelFile));
+    }
+
+    /**
+     * @return True if imports should call validateForImport first and reject invalid files.
+     */
+    public boolean isValidateBeforeImport() {
+        return validateBeforeImport;
+    }
+
+    /**
+     * With {@code importer.validation.before-import} enabled, validates the imported (first) sheet and
+     * rejects the file if any rule fails.
+     */
+    private void requireValid(File excelFile) throws IOException {
+        if (!validateBeforeImport) {
+            return;
         }
-        for (int i = startColIndex; i <= endColIndex; i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String cellValue = getCellValueAsString(cell);
-                if (cellValue != null && !cellValue.trim().isEmpty()) {
-                    return false; // Found non-empty cell
+        List<String> sheetNames = getSheetNames(excelFile);
+        ValidationReport report = validateUncounted(excelFile, sheetNames.subList(0, Math.min(1, sheetNames.size())));
+        if (!report.valid()) {
+            throw new IllegalArgumentException(report.summary());
+        }
+    }
+
+    private ValidationReport validateUncounted(File excelFile, List<String> sheetNames) throws IOException {
+        return ImportJob.untracked(() -> validationService.validate(excelFile, sheetNames,
+                (sheetIndex, rowConsumer) -> readRows(excelFile, sheetIndex, rowConsumer)));
+    }
+
+    /**
+     * Reads one sheet of the given file and passes each data row to the consumer, without touching the database.
+     * Used by BatchImportService for every sheet of every file.
+     *
+     * @param excelFile   The Excel file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param rowConsumer Receives one CaseMaster per data row, in sheet order.
+     * @throws IOException If there's an error reading the file.
+     */
+    public void readSheet(File excelFile, int sheetIndex, Consumer<CaseMaster> rowConsumer) throws IOException {
+        readSheet(excelFile, sheetIndex, caseMaster -> true, rowConsumer);
+    }
+
+    /**
+     * Reads one sheet like readSheet, passing on only the rows accepted by the filter.
+     *
+     * @param excelFile   The Excel file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param filter      Applied to every mapped row, e.g. a DuplicateDetector.Check shared by a whole batch.
+     * @param rowConsumer Receives the accepted rows, in sheet order.
+     * @throws IOException If there's an error reading the file.
+     */
+    public void readSheet(File excelFile, int sheetIndex, Predicate<CaseMaster> filter,
+                          Consumer<CaseMaster> rowConsumer) throws IOException {
+        readSheetRows(excelFile, sheetIndex, row -> {
+            CaseMaster caseMaster = rowMapper.map(row);
+            if (filter.test(caseMaster)) {
+                rowConsumer.accept(caseMaster);
+            }
+        });
+    }
+
+    /**
+     * Reads one sheet of the given file as unmapped SheetRows (the parse stage of the import pipeline).
+     *
+     * @param excelFile   The Excel file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param rowConsumer Receives one SheetRow per data row, in sheet order.
+     * @throws IOException If there's an error reading the file.
+     */
+    public void readSheetRows(File excelFile, int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException {
+        ImportProgress progress = ImportJob.currentProgress();
+        long readStart = System.nanoTime();
+        try {
+            readRows(excelFile, sheetIndex, row -> {
+                importMetrics.rowParsed();
+                progress.rowParsed();
+                rowConsumer.accept(row);
+            });
+        } finally {
+            importMetrics.recordSheetRead(System.nanoTime() - readStart);
+        }
+    }
+
+    /**
+     * Reads one sheet like readSheetRows, without counting the rows in the import metrics or the job's progress.
+     */
+    private void readRows(File excelFile, int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException {
+        if (DelimitedFileReader.isDelimited(excelFile)) {
+            // CSV/TSV path: no POI at all, the file is tokenized in place
+            if (sheetIndex != 0) {
+                throw new IllegalArgumentException(excelFile.getName() + " has a single sheet; sheet " + sheetIndex + " does not exist.");
+            }
+            delimitedFileReader.read(excelFile, rowConsumer);
+        } else if (streamingReaderEnabled && isXlsx(excelFile)) {
+            // SAX-based path: only the current row is held in memory while the sheet is parsed
+            streamingExcelReader.read(excelFile, sheetIndex, rowConsumer);
+        } else if (StreamingXlsReader.isXls(excelFile)) {
+            // Legacy .xls: record-level event path; XSSFWorkbook cannot open BIFF8 files anyway
+            streamingXlsReader.read(excelFile, sheetIndex, rowConsumer);
+        } else {
+            // DOM-based path: the whole workbook is loaded before the first row is read
+            readWorkbook(excelFile, sheetIndex, rowConsumer);
+        }
+    }
+
+    /**
+     * Lists the sheet names of the given file, in workbook order.
+     *
+     * @param excelFile The Excel file to inspect.
+     * @return The sheet names; the list index is the sheet index accepted by readSheet.
+     * @throws IOException If there's an error reading the file.
+     */
+    public List<String> getSheetNames(File excelFile) throws IOException {
+        if (DelimitedFileReader.isDelimited(excelFile)) {
+            return List.of(excelFile.getName()); // A delimited file is one sheet
+        }
+        if (streamingReaderEnabled && isXlsx(excelFile)) {
+            return streamingExcelReader.getSheetNames(excelFile);
+        }
+        if (StreamingXlsReader.isXls(excelFile)) {
+            return streamingXlsReader.getSheetNames(excelFile);
+        }
+        try (FileInputStream fis = new FileInputStream(excelFile);
+             Workbook workbook = new XSSFWorkbook(fis)) {
+            List<String> sheetNames = new ArrayList<>();
+            for (Sheet sheet : workbook) {
+                sheetNames.add(sheet.getSheetName());
+            }
+            return sheetNames;
+        }
+    }
+
+    /**
+     * Reads one sheet of the workbook using the POI user model (full DOM in memory).
+     *
+     * @param excelFile   The Excel file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param rowConsumer Receives one SheetRow per data row, in sheet order.
+     * @throws IOException If there's an error reading the file.
+     */
+    private void readWorkbook(File excelFile, int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException {
+        Timestamp submittedTs = null;
+        long openStart = System.nanoTime();
+
+        try (FileInputStream fis = new FileInputStream(excelFile);
+             Workbook workbook = new XSSFWorkbook(fis)) { // For .xlsx files
+
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            importMetrics.recordFileOpen("workbook", System.nanoTime() - openStart);
+            CellConversionContext conversion = new CellConversionContext(workbook); // One evaluator and formatter per workbook
+
+            // 1. Parse the header cell (D6 in the built-in layout) for SUBMITTED_TS
+            SheetLayout layout = rowMapper.getLayout();
+            Row headerRow = sheet.getRow(layout.getSubmittedTsRow());
+            if (headerRow == null) {
+                throw new IllegalArgumentException("Excel file is empty or does not have data in row "
+                        + (layout.getSubmittedTsRow() + 1) + " (" + layout.getSubmittedTsCell() + ").");
+            }
+            Cell headerCell = headerRow.getCell(layout.getSubmittedTsColumn());
+
+            if (headerCell != null && headerCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(headerCell)) {
+                Date headerDate = headerCell.getDateCellValue();
+                submittedTs = new Timestamp(headerDate.getTime());
+            } else {
+                throw new IllegalArgumentException("Cell " + layout.getSubmittedTsCell() + " must contain a valid date/time value.");
+            }
+
+            // 2. Parse the data rows (row 10 onward in the built-in layout) until the first blank row
+            RowDecoder decoder = new RowDecoder(conversion, layout.getFirstColumn(), layout.getLastColumn());
+            ImportJob.currentProgress().expectRows(sheet.getLastRowNum() + 1 - layout.getFirstDataRow());
+            for (int rowIndex = layout.getFirstDataRow(); rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+                Row currentRow = sheet.getRow(rowIndex);
+                if (currentRow == null) {
+                    break;
                 }
+
+                // Read the layout's columns once; the blank check and the mapping both use the decoded values
+                decoder.decode(currentRow);
+                if (decoder.isEmpty()) {
+                    break; // First blank row marks the end of data
+                }
+
+                rowConsumer.accept(decoder.toSheetRow(rowIndex, submittedTs));
             }
         }
-        return true; // All cells in range are empty
+    }
+
+    /**
+     * The streaming reader only understands the OOXML (.xlsx) package format.
+     */
+    private boolean isXlsx(File excelFile) {
+        return excelFile.getName().toLowerCase().endsWith(".xlsx");
     }
 }
@@ -1,9 +1,7 @@
 package com.ppi.utility.importer.service;
 
-import com.ppi.utility.importer.model.CaseCustPrvAddress;
 import com.ppi.utility.importer.model.CaseMaster;
-import com.ppi.utility.importer.repository.CaseCustPrvAddressRepository;
-import com.ppi.utility.importer.repository.CaseMasterRepository;
+import com.ppi.utility.importer.repository.CaseMasterJdbcLoader;
 import org.apache.poi.ss.usermodel.*; // Import WorkbookFactory
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,16 +23,13 @@ import java.util.List;
 @Service
 public class ExcelService {
 
-    private final CaseMasterRepository caseMasterRepository;
-    private final CaseCustPrvAddressRepository caseCustPrvAddressRepository;
+    private final CaseMasterJdbcLoader caseMasterJdbcLoader; // Writes each case together with its address row
     private final CaseIdGeneratorService caseIdGeneratorService; // New: Injected CaseIdGeneratorService
 
     @Autowired
-    public ExcelService(CaseMasterRepository caseMasterRepository,
-                        CaseCustPrvAddressRepository caseCustPrvAddressRepository,
+    public ExcelService(CaseMasterJdbcLoader caseMasterJdbcLoader,
                         CaseIdGeneratorService caseIdGeneratorService) { // New: Added to constructor
-        this.caseMasterRepository = caseMasterRepository;
-        this.caseCustPrvAddressRepository = caseCustPrvAddressRepository;
+        this.caseMasterJdbcLoader = caseMasterJdbcLoader;
         this.caseIdGeneratorService = caseIdGeneratorService; // New: Assigned
     }
 
@@ -53,10 +48,10 @@ public class ExcelService {
         List<CaseMaster> caseMasters = new ArrayList<>();
         Timestamp submittedTs = null;
 
-        try (FileInputStream fis = new FileInputStream(excelFile);
-             Workbook workbook = WorkbookFactory.create(fis)) { // Use WorkbookFactory to handle both .xlsx and .xls
+        try (Workbook workbook = openWorkbook(excelFile)) { // Handles both .xlsx and .xls
 
             Sheet sheet = workbook.getSheetAt(0); // Get the first sheet
+            CellConversionContext conversion = new CellConversionContext(workbook); // One evaluator and formatter per workbook
 
             // 1. Parse Cell D6 for SUBMITTED_TS
             Row rowD6 = sheet.getRow(5); // D6 is row index 5 (0-indexed)
@@ -79,7 +74,7 @@ public class ExcelService {
 
                 // Stop if the row is null or if critical cells (e.g., B, C, D, E) are blank
                 // Check if the first cell (B) is blank to determine end of data
-                if (currentRow == null || isRowEmpty(currentRow, 1, 8)) { // Check columns B to I (index 1 to 8)
+                if (currentRow == null || isRowEmpty(currentRow, 1, 8, conversion)) { // Check columns B to I (index 1 to 8)
                     break;
                 }
 
@@ -100,13 +95,13 @@ public class ExcelService {
                 // I: (not specified, but within B-I range, will be skipped or set to null if not used)
 
                 // Column B: THIRD_PARTY_REFERENCE_1
-                caseMaster.setThirdPartyReference1(getCellValueAsString(currentRow.getCell(1)));
+                caseMaster.setThirdPartyReference1(getCellValueAsString(currentRow.getCell(1), conversion));
                 // Column C: THIRD_PARTY_REFERENCE_2
-                caseMaster.setThirdPartyReference2(getCellValueAsString(currentRow.getCell(2)));
+                caseMaster.setThirdPartyReference2(getCellValueAsString(currentRow.getCell(2), conversion));
                 // Column D: LAST_NAME
-                caseMaster.setLastName(getCellValueAsString(currentRow.getCell(3)));
+                caseMaster.setLastName(getCellValueAsString(currentRow.getCell(3), conversion));
                 // Column E: FIRST_NAME
-                caseMaster.setFirstName(getCellValueAsString(currentRow.getCell(4)));
+                caseMaster.setFirstName(getCellValueAsString(currentRow.getCell(4), conversion));
 
                 // Column F: DATE_OF_BIRTH
                 Cell dobCell = currentRow.getCell(5);
@@ -119,7 +114,7 @@ public class ExcelService {
                 }
 
                 // Column G: POST_CODE
-                caseMaster.setPostCode(getCellValueAsString(currentRow.getCell(6)));
+                caseMaster.setPostCode(getCellValueAsString(currentRow.getCell(6), conversion));
 
                 // Columns H and I are not mapped to specific fields based on your schema.
                 // If they contain data, they will be ignored as no corresponding setters exist.
@@ -131,22 +126,13 @@ public class ExcelService {
                 return "No valid data rows found in the Excel file from row 10 onwards.";
             }
 
-            // Save all CaseMaster entities. The CASE_ID is already populated by CaseIdGeneratorService.
-            List<CaseMaster> savedCaseMasters = caseMasterRepository.saveAll(caseMasters);
+            // Save every CaseMaster together with its CaseCustPrvAddress row in one pass: each JDBC batch cycle
+            // sends the cases, then their address rows (defaults from the CaseCustPrvAddress constructor,
+            // PRV_ADDR_SEQ_ID from the sequence within the INSERT). The CASE_ID is already populated by CaseIdGeneratorService.
+            int insertedCount = caseMasterJdbcLoader.insertWithAddresses(caseMasters, false);
 
-            // Now, create and save CaseCustPrvAddress entities using the pre-generated CASE_ID
-            List<CaseCustPrvAddress> caseCustPrvAddresses = new ArrayList<>();
-            for (CaseMaster savedCaseMaster : savedCaseMasters) {
-                CaseCustPrvAddress prvAddress = new CaseCustPrvAddress();
-                prvAddress.setCaseId(savedCaseMaster.getCaseId()); // Link to the newly created CaseMaster
-                // Default values are set in the CaseCustPrvAddress constructor
-                caseCustPrvAddresses.add(prvAddress);
-            }
-
-            caseCustPrvAddressRepository.saveAll(caseCustPrvAddresses);
-
-            return "Upload successful! Processed " + caseMasters.size() + " records into CASE_MASTER_TBL and " +
-                   caseCustPrvAddresses.size() + " records into CASE_CUST_PRV_ADDRESS.";
+            return "Upload successful! Processed " + insertedCount + " records into CASE_MASTER_TBL and " +
+                   insertedCount + " records into CASE_CUST_PRV_ADDRESS.";
 
         } catch (IOException e) {
             System.err.println("Error reading Excel file: " + e.getMessage());
@@ -165,9 +151,10 @@ public class ExcelService {
      * Helper method to get cell value as String, handling different cell types.
      *
      * @param cell The Excel cell.
+     * @param conversion The evaluator/formatter context of the cell's workbook.
      * @return The string representation of the cell value, or null if cell is null or blank.
      */
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(Cell cell, CellConversionContext conversion) {
         if (cell == null) {
             return null;
         }
@@ -180,21 +167,16 @@ public class ExcelService {
                 } else {
                     // For general numbers, return as string to avoid scientific notation issues
                     // Use DataFormatter for consistent numeric to string conversion
-                    DataFormatter formatter = new DataFormatter();
-                    yield formatter.formatCellValue(cell);
+                    yield conversion.formatCellValue(cell);
                 }
             }
             case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
             case FORMULA -> {
-                // Evaluate formula cells to get their result
-                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                CellValue cellValue = evaluator.evaluate(cell);
+                // Evaluate formula cells to get their result, reusing the workbook's evaluator
+                CellValue cellValue = conversion.evaluate(cell);
                 yield switch (cellValue.getCellType()) {
                     case STRING -> cellValue.getStringValue();
-                    case NUMERIC -> {
-                        DataFormatter formatter = new DataFormatter();
-                        yield formatter.formatCellValue(cellValue); // Use formatter for formula results too
-                    }
+                    case NUMERIC -> conversion.formatNumber(cell, cellValue.getNumberValue()); // Use formatter for formula results too
                     case BOOLEAN -> String.valueOf(cellValue.getBooleanValue());
                     case ERROR -> "ERROR";
                     default -> null;
@@ -211,16 +193,17 @@ public class ExcelService {
      * @param row The row to check.
      * @param startColIndex The starting column index (inclusive).
      * @param endColIndex The ending column index (inclusive).
+     * @param conversion The evaluator/formatter context of the row's workbook.
      * @return true if all cells in the specified range are null or blank, false otherwise.
      */
-    private boolean isRowEmpty(Row row, int startColIndex, int endColIndex) {
+    private boolean isRowEmpty(Row row, int startColIndex, int endColIndex, CellConversionContext conversion) {
         if (row == null) {
             return true;
         }
         for (int i = startColIndex; i <= endColIndex; i++) {
             Cell cell = row.getCell(i);
             if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String cellValue = getCellValueAsString(cell);
+                String cellValue = getCellValueAsString(cell, conversion);
                 if (cellValue != null && !cellValue.trim().isEmpty()) {
                     return false; // Found non-empty cell
                 }
@@ -228,4 +211,18 @@ public class ExcelService {
         }
         return true; // All cells in range are empty
     }
+
+    /**
+     * Opens .xls read-only from the File, which POIFS maps instead of copying into heap blocks (about 10% less
+     * peak heap in ReaderHeapComparison). .xlsx is still read from a stream: opening it from the File saved no
+     * heap there and was slower to the first row.
+     */
+    private Workbook openWorkbook(File excelFile) throws IOException {
+        if (excelFile.getName().toLowerCase().endsWith(".xls")) {
+            return WorkbookFactory.create(excelFile, null, true);
+        }
+        try (FileInputStream fis = new FileInputStream(excelFile)) {
+            return WorkbookFactory.create(fis); // Reads the whole stream, so it can be closed right away
+        }
+    }
 }
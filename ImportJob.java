@@ -0,0 +1,278 @@
+package com.ppi.utility.importer.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * One unit of work queued on the ImportJobScheduler, e.g. an upload of one or more files.
+ * <p>
+ * A job moves from QUEUED to RUNNING to DONE, FAILED or CANCELLED. Cancelling a queued job removes it
+ * from the queue. A running job is cancelled cooperatively: the import code calls checkCancelled at
+ * every chunk boundary (CaseMasterBatchWriter, BatchImportService, ValidationService), which throws
+ * once cancel has been requested. The chunk in progress therefore finishes or rolls back cleanly, and
+ * JDBC calls are never interrupted mid-statement.
+ * <p>
+ * The same thread-bound job carries the job's ImportProgress, so the readers and writers count rows
+ * against the job they run for (see currentProgress).
+ */
+public final class ImportJob {
+
+    public enum Priority {
+        HIGH, NORMAL, LOW // Declaration order is scheduling order
+    }
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    // The job whose work runs on the current thread; see checkCancelled and propagate
+    private static final ThreadLocal<ImportJob> CURRENT = new ThreadLocal<>();
+    // Counts rows read and written outside of any job (CLI, benchmarks); never published
+    private static final ImportProgress UNTRACKED = new ImportProgress();
+    // Set while the current thread reads a file without counting it towards its job; see untracked
+    private static final ThreadLocal<Boolean> UNTRACKED_READ = new ThreadLocal<>();
+
+    private final long id;
+    private final String name;
+    private final Priority priority;
+    private final Callable<String> work;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<String> completion = new CompletableFuture<>();
+    private final ImportProgress progress = new ImportProgress();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String result;
+    private volatile Throwable error;
+
+    ImportJob(long id, String name, Priority priority, Callable<String> work) {
+        this.id = id;
+        this.name = name;
+        this.priority = priority;
+        this.work = work;
+    }
+
+    /**
+     * Throws if the job running on the current thread has been cancelled. A no-op outside of a job
+     * (e.g. the benchmarks), so it can be called from any import code path.
+     *
+     * @throws CancellationException If cancel was requested for the current job.
+     */
+    public static void checkCancelled() {
+        ImportJob job = CURRENT.get();
+        if (job != null && job.cancelRequested) {
+            throw new CancellationException("Import job '" + job.name + "' was cancelled.");
+        }
+    }
+
+    /**
+     * @return True if the job running on the current thread has been cancelled.
+     */
+    public static boolean isCancelled() {
+        ImportJob job = CURRENT.get();
+        return job != null && job.cancelRequested;
+    }
+
+    /**
+     * @return The progress of the job running on the current thread, or a shared untracked instance
+     *         outside of a job, so that import code can count rows unconditionally.
+     */
+    public static ImportProgress currentProgress() {
+        ImportJob job = CURRENT.get();
+        return job != null && UNTRACKED_READ.get() == null ? job.progress : UNTRACKED;
+    }
+
+    /**
+     * Runs a pass over the input that is not part of the job's progress, e.g. validating a file that is
+     * imported right after: rows and expected rows counted on this thread meanwhile go to the untracked
+     * instance, so the job's progress only counts the import. checkCancelled still sees the job.
+     */
+    public static <T> T untracked(UntrackedRead<T> read) throws IOException {
+        boolean nested = UNTRACKED_READ.get() != null;
+        UNTRACKED_READ.set(Boolean.TRUE);
+        try {
+            return read.run();
+        } finally {
+            if (!nested) {
+                UNTRACKED_READ.remove();
+            }
+        }
+    }
+
+    /**
+     * The work of untracked.
+     */
+    @FunctionalInterface
+    public interface UntrackedRead<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Wraps a task that the current job hands to another thread (e.g. a virtual thread per file),
+     * so that checkCancelled on that thread sees the same job.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        ImportJob job = CURRENT.get();
+        if (job == null) {
+            return task;
+        }
+        return () -> {
+            ImportJob previous = CURRENT.get();
+            CURRENT.set(job);
+            try {
+                return task.get();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runnable variant of propagate, e.g. for a pipeline stage.
+     */
+    public static Runnable propagate(Runnable task) {
+        ImportJob job = CURRENT.get();
+        if (job == null) {
+            return task;
+        }
+        return () -> {
+            ImportJob previous = CURRENT.get();
+            CURRENT.set(job);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs the work on the calling (worker) thread and records the outcome.
+     */
+    void run() {
+        if (cancelRequested) {
+            finish(State.CANCELLED, null, new CancellationException("Import job '" + name + "' was cancelled."));
+            return;
+        }
+        startedAt = Instant.now();
+        progress.start();
+        state = State.RUNNING;
+        CURRENT.set(this);
+        try {
+            String value = work.call();
+            // Work that absorbs errors per file (the batch engine) still returns after a cancel
+            finish(cancelRequested ? State.CANCELLED : State.DONE, value, null);
+        } catch (Throwable t) {
+            finish(cancelRequested ? State.CANCELLED : State.FAILED, null, t);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Asks the job to stop; see the class comment. Has no effect on a finished job.
+     */
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void finish(State finalState, String value, Throwable failure) {
+        result = value;
+        error = failure;
+        finishedAt = Instant.now();
+        state = finalState;
+        progress.stop();
+        progress.publish(); // Final counts, whatever the ticker last sent
+        if (failure != null) {
+            completion.completeExceptionally(failure);
+        } else {
+            completion.complete(value);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return The summary returned by the work, once DONE (or CANCELLED after partial work).
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return The failure, once FAILED or CANCELLED.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return Live row counts; listeners receive throttled events while the job runs and one when it finishes.
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Completes with the job's summary, or exceptionally when the job fails or is cancelled.
+     * Callers such as the UI attach their handlers here instead of polling the state.
+     */
+    public CompletableFuture<String> completion() {
+        return completion;
+    }
+
+    /**
+     * @return Time spent running, or waiting in the queue while still QUEUED.
+     */
+    public Duration getElapsed() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return Duration.between(startedAt != null ? startedAt : submittedAt, end);
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + name + " [" + state + (cancelRequested && !state.isFinished() ? ", cancelling" : "")
+                + ", " + priority + "]";
+    }
+}
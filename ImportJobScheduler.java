@@ -0,0 +1,218 @@
+package com.ppi.utility.importer.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class that runs import jobs on a bounded pool of {@code importer.jobs.workers} threads.
+ * <p>
+ * Jobs wait in a priority queue (HIGH before NORMAL before LOW, then first come first served), so
+ * dropping many files at once never starts more imports than there are workers: the database
+ * connection pool and the heap only ever see that many imports at a time. At most
+ * {@code importer.jobs.max-queued} jobs may wait; further submissions are refused. Finished jobs are
+ * kept for the job list up to {@code importer.jobs.history}.
+ * <p>
+ * A single ticker thread publishes the ImportProgress of every running job each
+ * {@code importer.progress.interval} (never more often than every 100 ms), so progress listeners are
+ * throttled in one place and the import threads themselves only count.
+ */
+@Service
+public class ImportJobScheduler {
+
+    private final int maxQueued;
+    private final int history;
+    private final long tickMillis;
+    private final ThreadPoolExecutor workerExecutor;
+    private final ScheduledExecutorService progressTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "import-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, QueuedJob> jobs = new LinkedHashMap<>(); // Guarded by this; in submission order
+
+    @Autowired
+    public ImportJobScheduler(@Value("${importer.jobs.workers:2}") int workers,
+                              @Value("${importer.jobs.max-queued:500}") int maxQueued,
+                              @Value("${importer.jobs.history:200}") int history,
+                              @Value("${importer.progress.interval:100ms}") Duration progressInterval) {
+        this.maxQueued = Math.max(1, maxQueued);
+        this.history = Math.max(0, history);
+        int poolSize = Math.max(1, workers);
+        // Core size == max size: extra jobs queue by priority instead of starting more threads
+        this.workerExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "import-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tickMillis = Math.max(100, progressInterval.toMillis()); // At most 10 events per second per job
+    }
+
+    /**
+     * Starts the progress ticker once the scheduler is fully constructed.
+     */
+    @PostConstruct
+    public void startProgressTicker() {
+        progressTicker.scheduleAtFixedRate(this::publishProgress, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param name     Shown in the job list and log, e.g. the file name.
+     * @param priority Scheduling priority among queued jobs.
+     * @param work     The import itself; its return value is the job's summary.
+     * @return The queued job; attach to completion() for the outcome.
+     * @throws IllegalStateException If max-queued jobs are already waiting.
+     */
+    public ImportJob submit(String name, ImportJob.Priority priority, Callable<String> work) {
+        QueuedJob queued;
+        synchronized (this) {
+            if (workerExecutor.getQueue().size() >= maxQueued) {
+                throw new IllegalStateException("The import queue is full (" + maxQueued + " jobs waiting); try again later.");
+            }
+            ImportJob job = new ImportJob(nextId.getAndIncrement(), name, priority, work);
+            queued = new QueuedJob(job);
+            jobs.put(job.getId(), queued);
+            pruneHistory();
+        }
+        System.out.println("[" + name + "] Queued as job #" + queued.job.getId() + " (" + priority + ")");
+        workerExecutor.execute(queued);
+        return queued.job;
+    }
+
+    /**
+     * Cancels a job: a queued job is removed from the queue, a running job stops at its next chunk boundary.
+     *
+     * @return False if the job is unknown or already finished.
+     */
+    public boolean cancel(long jobId) {
+        QueuedJob queued;
+        synchronized (this) {
+            queued = jobs.get(jobId);
+        }
+        if (queued == null || queued.job.getState().isFinished()) {
+            return false;
+        }
+        queued.job.requestCancel();
+        if (workerExecutor.remove(queued)) {
+            queued.job.finish(ImportJob.State.CANCELLED, null,
+                    new CancellationException("Import job '" + queued.job.getName() + "' was cancelled before it started."));
+        }
+        System.out.println("[" + queued.job.getName() + "] Cancel requested for job #" + jobId);
+        return true;
+    }
+
+    /**
+     * Cancels every job that has not finished yet.
+     */
+    public void cancelAll() {
+        for (ImportJob job : getJobs()) {
+            if (!job.getState().isFinished()) {
+                cancel(job.getId());
+            }
+        }
+    }
+
+    /**
+     * @return The known jobs, oldest first.
+     */
+    public synchronized List<ImportJob> getJobs() {
+        List<ImportJob> list = new ArrayList<>(jobs.size());
+        for (QueuedJob queued : jobs.values()) {
+            list.add(queued.job);
+        }
+        return list;
+    }
+
+    /**
+     * @return Jobs that are queued or running.
+     */
+    public int getActiveCount() {
+        int active = 0;
+        for (ImportJob job : getJobs()) {
+            if (!job.getState().isFinished()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelAll();
+        progressTicker.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+
+    private void publishProgress() {
+        for (ImportJob job : getJobs()) {
+            if (job.getState() == ImportJob.State.RUNNING) {
+                job.getProgress().publish();
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest finished jobs beyond the history limit. Caller holds the lock.
+     */
+    private void pruneHistory() {
+        int finished = 0;
+        for (QueuedJob queued : jobs.values()) {
+            if (queued.job.getState().isFinished()) {
+                finished++;
+            }
+        }
+        Iterator<QueuedJob> iterator = jobs.values().iterator();
+        while (finished > history && iterator.hasNext()) {
+            if (iterator.next().job.getState().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Queue entry; ordered by priority, then by submission.
+     */
+    private static final class QueuedJob implements Runnable, Comparable<QueuedJob> {
+        private final ImportJob job;
+
+        QueuedJob(ImportJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            System.out.println("[" + job.getName() + "] Job #" + job.getId() + " started");
+            job.run();
+            System.out.println("[" + job.getName() + "] Job #" + job.getId() + " " + job.getState()
+                    + " after " + job.getElapsed().toMillis() + " ms");
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(job.getId(), other.job.getId());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ppi.utility.importer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters for the import, recorded into the MeterRegistry configured by MetricsConfiguration
+ * (in-memory, JMX and/or periodic log output, see {@code importer.metrics.registries}).
+ * <p>
+ * Recording is cheap enough to call per row: counters are striped adders and timers are updated once per
+ * file, chunk or sequence block. Meter names are shared with BlockSequenceIdGenerator, which Hibernate
+ * instantiates outside Spring and therefore records through Micrometer's global registry.
+ */
+@Component
+public class ImportMetrics {
+
+    public static final String FILE_OPEN = "importer.file.open";
+    public static final String ROWS_PARSED = "importer.rows.parsed";
+    public static final String ROWS_WRITTEN = "importer.rows.written";
+    public static final String ROWS_REJECTED = "importer.rows.rejected";
+    public static final String ROWS_DUPLICATE = "importer.rows.duplicate";
+    public static final String BATCH_INSERT = "importer.batch.insert";
+    public static final String SEQUENCE_FETCH = "importer.sequence.fetch";
+    public static final String TRANSACTION_COMMIT = "importer.transaction.commit";
+    public static final String SHEET_READ = "importer.sheet.read";
+
+    private final MeterRegistry registry;
+    private final MeterRegistry readRegistry; // Cumulative values for snapshot()
+    private final Counter rowsParsed;
+    private final Counter rowsWritten;
+    private final Counter rowsRejected;
+    private final Counter rowsDuplicate;
+    private final Timer batchInsert;
+    private final Timer transactionCommit;
+    private final Timer sheetRead;
+
+    @Autowired
+    public ImportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.readRegistry = cumulativeRegistry(registry);
+        this.rowsParsed = Counter.builder(ROWS_PARSED)
+                .description("Data rows read from input files")
+                .register(registry);
+        this.rowsWritten = Counter.builder(ROWS_WRITTEN)
+                .description("Rows flushed to CASE_MASTER_TBL")
+                .register(registry);
+        this.rowsRejected = Counter.builder(ROWS_REJECTED)
+                .description("Rows read but not persisted, e.g. because their chunk or transaction failed")
+                .register(registry);
+        this.rowsDuplicate = Counter.builder(ROWS_DUPLICATE)
+                .description("Rows whose key was already seen in the same import run (see DuplicateDetector)")
+                .register(registry);
+        this.batchInsert = Timer.builder(BATCH_INSERT)
+                .description("saveAll + flush of one chunk")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.transactionCommit = Timer.builder(TRANSACTION_COMMIT)
+                .description("Database commit of an import transaction")
+                .register(registry);
+        this.sheetRead = Timer.builder(SHEET_READ)
+                .description("Reading one sheet, from opening the file to its last data row")
+                .register(registry);
+    }
+
+    public void recordFileOpen(String reader, long nanos) {
+        Timer.builder(FILE_OPEN)
+                .description("Time to open a workbook before the first row can be read")
+                .tag("reader", reader)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the wall time of reading one sheet. Includes time the reader spent blocked on downstream
+     * stages, so it overlaps with the batch insert time when parsing and writing run concurrently.
+     */
+    public void recordSheetRead(long nanos) {
+        sheetRead.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rowParsed() {
+        rowsParsed.increment();
+    }
+
+    public void rowsRejected(int count) {
+        if (count > 0) {
+            rowsRejected.increment(count);
+        }
+    }
+
+    public void rowDuplicate() {
+        rowsDuplicate.increment();
+    }
+
+    /**
+     * Records one chunk flush: its latency goes into the insert histogram, its size into the written-rows counter.
+     */
+    public void recordBatchInsert(int rows, long nanos) {
+        batchInsert.record(nanos, TimeUnit.NANOSECONDS);
+        rowsWritten.increment(rows);
+    }
+
+    public void recordSequenceFetch(String sequenceName, long nanos) {
+        Timer.builder(SEQUENCE_FETCH)
+                .description("Round-trip reserving a block of sequence values")
+                .tag("sequence", sequenceName)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times the commit of the current transaction, if one is active. Registering more than once
+     * per transaction is a no-op, so this can be called at the start of every chunk.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof CommitTimer) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new CommitTimer());
+    }
+
+    /**
+     * Reads the current totals. Safe to call from any thread, e.g. the JavaFX timeline refreshing the summary.
+     */
+    public ImportMetricsSnapshot snapshot() {
+        Timer inserts = readRegistry.get(BATCH_INSERT).timer();
+        Timer commits = readRegistry.get(TRANSACTION_COMMIT).timer();
+        double batchP95 = 0;
+        for (ValueAtPercentile percentile : inserts.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                batchP95 = percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+
+        long filesOpened = 0;
+        double fileOpenMs = 0;
+        for (Timer timer : readRegistry.find(FILE_OPEN).timers()) {
+            filesOpened += timer.count();
+            fileOpenMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long sequenceFetches = 0;
+        double sequenceFetchMs = 0;
+        for (Timer timer : readRegistry.find(SEQUENCE_FETCH).timers()) {
+            sequenceFetches += timer.count();
+            sequenceFetchMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+
+        return new ImportMetricsSnapshot(
+                System.nanoTime(),
+                (long) readRegistry.get(ROWS_PARSED).counter().count(),
+                (long) readRegistry.get(ROWS_WRITTEN).counter().count(),
+                (long) readRegistry.get(ROWS_REJECTED).counter().count(),
+                (long) readRegistry.get(ROWS_DUPLICATE).counter().count(),
+                filesOpened,
+                filesOpened == 0 ? 0 : fileOpenMs / filesOpened,
+                inserts.count(),
+                inserts.mean(TimeUnit.MILLISECONDS),
+                batchP95,
+                inserts.max(TimeUnit.MILLISECONDS),
+                sequenceFetches,
+                sequenceFetches == 0 ? 0 : sequenceFetchMs / sequenceFetches,
+                commits.count(),
+                commits.mean(TimeUnit.MILLISECONDS),
+                readRegistry.get(SHEET_READ).timer().totalTime(TimeUnit.MILLISECONDS),
+                inserts.totalTime(TimeUnit.MILLISECONDS) + commits.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * A composite meter reads its values from its first child, which may be a step registry (log) that only
+     * reports the last completed interval, so snapshots read the in-memory child instead. One is added when
+     * {@code importer.metrics.registries} does not list memory.
+     */
+    private static MeterRegistry cumulativeRegistry(MeterRegistry registry) {
+        if (!(registry instanceof CompositeMeterRegistry composite)) {
+            return registry;
+        }
+        for (MeterRegistry child : composite.getRegistries()) {
+            if (child instanceof SimpleMeterRegistry) {
+                return child;
+            }
+        }
+        SimpleMeterRegistry memory = new SimpleMeterRegistry();
+        composite.add(memory);
+        return memory;
+    }
+
+    /**
+     * Measures from just before the commit to its successful completion. Chunks are flushed explicitly,
+     * so what remains at this point is the database commit itself.
+     */
+    private final class CommitTimer implements TransactionSynchronization {
+        private long beforeCommitNanos;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            beforeCommitNanos = System.nanoTime();
+        }
+
+        @Override
+        public void afterCommit() {
+            transactionCommit.record(System.nanoTime() - beforeCommitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ppi.utility.importer.service;
+
+/**
+ * Point-in-time totals read from ImportMetrics. Rates are derived by comparing two snapshots.
+ *
+ * @param nanoTime             System.nanoTime() when the snapshot was taken.
+ * @param rowsParsed           Data rows read from input files.
+ * @param rowsWritten          Rows flushed to the database.
+ * @param rowsRejected         Rows read but not persisted.
+ * @param rowsDuplicate        Rows whose key was already seen in the same import run.
+ * @param filesOpened          Workbooks opened.
+ * @param fileOpenMeanMs       Mean time to open a workbook.
+ * @param batches              Chunks flushed.
+ * @param batchMeanMs          Mean chunk insert latency.
+ * @param batchP95Ms           95th percentile chunk insert latency.
+ * @param batchMaxMs           Maximum chunk insert latency in the current reporting step.
+ * @param sequenceFetches      Sequence block round-trips.
+ * @param sequenceFetchMeanMs  Mean sequence block round-trip time.
+ * @param commits              Import transactions committed.
+ * @param commitMeanMs         Mean commit time.
+ * @param sheetReadTotalMs     Total time spent reading sheets (parse side).
+ * @param writeTotalMs         Total time spent in chunk inserts and commits (database side).
+ */
+public record ImportMetricsSnapshot(long nanoTime,
+                                    long rowsParsed,
+                                    long rowsWritten,
+                                    long rowsRejected,
+                                    long rowsDuplicate,
+                                    long filesOpened,
+                                    double fileOpenMeanMs,
+                                    long batches,
+                                    double batchMeanMs,
+                                    double batchP95Ms,
+                                    double batchMaxMs,
+                                    long sequenceFetches,
+                                    double sequenceFetchMeanMs,
+                                    long commits,
+                                    double commitMeanMs,
+                                    double sheetReadTotalMs,
+                                    double writeTotalMs) {
+
+    /**
+     * Rows parsed per second since the previous snapshot.
+     */
+    public double rowsPerSecond(ImportMetricsSnapshot previous) {
+        long elapsedNanos = nanoTime - previous.nanoTime;
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (rowsParsed - previous.rowsParsed) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Multi-line summary for the main window and log output.
+     */
+    public String summary(ImportMetricsSnapshot previous) {
+        return String.format("Rows: %,d parsed (%,.0f/s), %,d written, %,d rejected, %,d duplicate%n"
+                        + "File open: %,d files, avg %.0f ms%n"
+                        + "Batch insert: %,d chunks, avg %.0f ms, p95 %.0f ms, max %.0f ms%n"
+                        + "Sequence fetch: %,d blocks, avg %.1f ms | Commit: %,d, avg %.0f ms",
+                rowsParsed, rowsPerSecond(previous), rowsWritten, rowsRejected, rowsDuplicate,
+                filesOpened, fileOpenMeanMs,
+                batches, batchMeanMs, batchP95Ms, batchMaxMs,
+                sequenceFetches, sequenceFetchMeanMs, commits, commitMeanMs);
+    }
+}
@@ -0,0 +1,275 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Staged producer/consumer pipeline that overlaps Excel parsing with database writes:
+ * <pre>
+ *   row parser -> [parsed queue] -> mapper/validator -> [mapped queue] -> batch writer
+ * </pre>
+ * The parser and mapper each run on their own thread; the writer stage runs on the calling thread
+ * so that it joins the caller's transaction. Backpressure comes purely from the bounded queue
+ * capacities: a slow writer blocks the mapper, which in turn blocks the parser, so memory stays
+ * bounded and end-to-end time approaches max(parse, write) instead of parse + write.
+ */
+@Service
+public class ImportPipeline {
+
+    // End-of-stream markers, compared by identity
+    private static final SheetRow END_OF_ROWS = new SheetRow(-1, null, new String[0], new LocalDate[0]);
+    private static final CaseMaster END_OF_CASES = new CaseMaster();
+
+    private final CaseMasterRowMapper rowMapper;
+    private final int parsedQueueCapacity;
+    private final int mappedQueueCapacity;
+    private final ExecutorService stageExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "import-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ImportPipeline(CaseMasterRowMapper rowMapper,
+                          @Value("${importer.pipeline.parsed-queue-capacity:5000}") int parsedQueueCapacity,
+                          @Value("${importer.pipeline.mapped-queue-capacity:5000}") int mappedQueueCapacity) {
+        this.rowMapper = rowMapper;
+        this.parsedQueueCapacity = Math.max(1, parsedQueueCapacity);
+        this.mappedQueueCapacity = Math.max(1, mappedQueueCapacity);
+    }
+
+    /**
+     * Source of parsed rows for the first stage, e.g. a call to ExcelService.readSheetRows.
+     */
+    @FunctionalInterface
+    public interface SheetRowSource {
+        void read(Consumer<SheetRow> rowConsumer) throws IOException;
+    }
+
+    /**
+     * Runs the pipeline to completion.
+     *
+     * @param sourceName Name used to label the stage statistics (usually the file name).
+     * @param source     The parser stage.
+     * @param writer     The writer stage; invoked on the calling thread, in sheet order.
+     * @return Per-stage throughput statistics.
+     * @throws IOException If the parser stage failed to read the file.
+     */
+    public Result run(String sourceName, SheetRowSource source, Consumer<CaseMaster> writer) throws IOException {
+        return run(sourceName, source, caseMaster -> true, writer);
+    }
+
+    /**
+     * Runs the pipeline to completion, passing only the mapped rows accepted by the filter to the writer.
+     *
+     * @param sourceName Name used to label the stage statistics (usually the file name).
+     * @param source     The parser stage.
+     * @param filter     Applied in the mapper stage, e.g. a DuplicateDetector.Check; rows it rejects are not written.
+     * @param writer     The writer stage; invoked on the calling thread, in sheet order.
+     * @return Per-stage throughput statistics.
+     * @throws IOException If the parser stage failed to read the file.
+     */
+    public Result run(String sourceName, SheetRowSource source, Predicate<CaseMaster> filter,
+                      Consumer<CaseMaster> writer) throws IOException {
+        BlockingQueue<SheetRow> parsedQueue = new ArrayBlockingQueue<>(parsedQueueCapacity);
+        BlockingQueue<CaseMaster> mappedQueue = new ArrayBlockingQueue<>(mappedQueueCapacity);
+        StageStats parseStats = new StageStats("parse");
+        StageStats mapStats = new StageStats("map");
+        StageStats writeStats = new StageStats("write");
+        Throwable[] failure = new Throwable[1];
+
+        Future<?> parser = stageExecutor.submit(ImportJob.propagate(() -> { // Counts rows against the caller's job
+            parseStats.start();
+            try {
+                source.read(row -> {
+                    parseStats.processed++;
+                    parseStats.timeBlocked(() -> parsedQueue.put(row));
+                });
+            } catch (Throwable t) {
+                failure[0] = t; // Published to the writer thread through the queue hand-off below
+            } finally {
+                parseStats.finish();
+                parseStats.timeBlocked(() -> parsedQueue.put(END_OF_ROWS));
+            }
+        }));
+
+        Future<?> mapper = stageExecutor.submit(() -> {
+            mapStats.start();
+            try {
+                while (true) {
+                    SheetRow row = mapStats.timeBlockedTake(parsedQueue);
+                    if (row == END_OF_ROWS) {
+                        break;
+                    }
+                    CaseMaster caseMaster = rowMapper.map(row);
+                    mapStats.processed++;
+                    if (filter.test(caseMaster)) {
+                        mapStats.timeBlocked(() -> mappedQueue.put(caseMaster));
+                    }
+                }
+            } finally {
+                mapStats.finish();
+                mapStats.timeBlocked(() -> mappedQueue.put(END_OF_CASES));
+            }
+            return null;
+        });
+
+        writeStats.start();
+        try {
+            while (true) {
+                CaseMaster caseMaster = writeStats.timeBlockedTake(mappedQueue);
+                if (caseMaster == END_OF_CASES) {
+                    break;
+                }
+                writer.accept(caseMaster);
+                writeStats.processed++;
+            }
+            mapper.get(); // Surface mapper failures
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import pipeline was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Mapping stage failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            writeStats.finish();
+            // Unblock upstream stages if the writer stopped early
+            parser.cancel(true);
+            mapper.cancel(true);
+        }
+
+        rethrowParseFailure(failure[0]);
+        Result result = new Result(List.of(parseStats, mapStats, writeStats));
+        System.out.println("[" + sourceName + "] Pipeline " + result);
+        return result;
+    }
+
+    private static void rethrowParseFailure(Throwable failure) throws IOException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException; // e.g. IllegalArgumentException for a bad D6
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException("Parsing stage failed: " + failure.getMessage(), failure);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stageExecutor.shutdownNow();
+    }
+
+    /**
+     * Per-stage statistics of one pipeline run.
+     */
+    public record Result(List<StageStats> stages) {
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (StageStats stage : stages) {
+                if (!sb.isEmpty()) {
+                    sb.append(", ");
+                }
+                sb.append(stage);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Counters for one stage. Busy time excludes time spent blocked on a queue, so
+     * rowsPerSecond reflects what the stage could sustain on its own.
+     */
+    public static final class StageStats {
+        private final String name;
+        private volatile long processed;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile long blockedNanos;
+
+        StageStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getElapsedMs() {
+            return (endNanos - startNanos) / 1_000_000;
+        }
+
+        public long getBlockedMs() {
+            return blockedNanos / 1_000_000;
+        }
+
+        public double getRowsPerSecond() {
+            long busyNanos = Math.max(1, endNanos - startNanos - blockedNanos);
+            return processed * 1_000_000_000.0 / busyNanos;
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        void timeBlocked(QueueOperation operation) {
+            long start = System.nanoTime();
+            try {
+                operation.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting on the " + name + " queue.", e);
+            } finally {
+                blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+        <T> T timeBlockedTake(BlockingQueue<T> queue) throws InterruptedException {
+            long start = System.nanoTime();
+            try {
+                return queue.take();
+            } finally {
+                blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d rows in %d ms (%d ms blocked, %.0f rows/s)",
+                    name, processed, getElapsedMs(), getBlockedMs(), getRowsPerSecond());
+        }
+    }
+
+    @FunctionalInterface
+    interface QueueOperation {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ppi.utility.importer.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Live progress of one import job: rows parsed, rows persisted, chunks written and the expected number
+ * of rows, which the readers estimate when they open a sheet (the sheet dimension for .xlsx and .xls,
+ * the last row for the DOM path, the first region for CSV/TSV).
+ * <p>
+ * The import threads only bump counters. Events are published by the ImportJobScheduler's progress
+ * ticker every {@code importer.progress.interval} (at least 100 ms), so listeners such as the UI receive
+ * at most ten events per second per job however fast rows arrive, and keep receiving them while an
+ * import stalls; the rate then falls towards zero instead of freezing at its last value.
+ */
+public final class ImportProgress {
+
+    // Time constant of the smoothed rate: roughly the last second of progress counts
+    private static final double RATE_TIME_CONSTANT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder chunksWritten = new LongAdder();
+    private final LongAdder rowsExpected = new LongAdder();
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this; only touched when the job starts and when a snapshot is taken
+    private boolean started;
+    private long startNanos;
+    private boolean stopped;
+    private long stopNanos;
+    private long lastNanos;
+    private long lastRows;
+    private double rowsPerSecond;
+
+    /**
+     * Counts one parsed data row.
+     */
+    public void rowParsed() {
+        rowsParsed.increment();
+    }
+
+    /**
+     * Counts one chunk handed to the database.
+     */
+    public void chunkWritten(int rows) {
+        rowsWritten.add(rows);
+        chunksWritten.increment();
+    }
+
+    /**
+     * Adds a sheet's estimated data rows to the expected total. Sheets are estimated as they are opened,
+     * so the total of a multi-sheet or multi-file job grows while it runs.
+     */
+    public void expectRows(long rows) {
+        if (rows > 0) {
+            rowsExpected.add(rows);
+        }
+    }
+
+    /**
+     * Registers a listener for progress events. Listeners are called on the progress ticker thread and
+     * must hand off to their own thread (e.g. Platform.runLater) for anything slow.
+     */
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    synchronized void start() {
+        started = true;
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+    }
+
+    /**
+     * Freezes the elapsed time once the job has finished.
+     */
+    synchronized void stop() {
+        stopped = true;
+        stopNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a snapshot and updates the smoothed rate from the rows parsed since the previous one.
+     */
+    public synchronized Snapshot snapshot() {
+        long now = System.nanoTime();
+        long parsed = rowsParsed.sum();
+        if (started && now > lastNanos) {
+            double instant = (parsed - lastRows) * 1_000_000_000.0 / (now - lastNanos);
+            double alpha = 1 - Math.exp(-(now - lastNanos) / RATE_TIME_CONSTANT_NANOS);
+            rowsPerSecond += alpha * (instant - rowsPerSecond);
+            lastNanos = now;
+            lastRows = parsed;
+        }
+        long elapsedMs = started ? ((stopped ? stopNanos : now) - startNanos) / 1_000_000 : 0;
+        return new Snapshot(parsed, rowsWritten.sum(), chunksWritten.sum(), rowsExpected.sum(), rowsPerSecond, elapsedMs);
+    }
+
+    /**
+     * Sends a snapshot to the listeners; a failing listener is logged and does not affect the import.
+     */
+    void publish() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Snapshot snapshot = snapshot();
+        for (Consumer<Snapshot> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                System.err.println("Progress listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Progress at one point in time.
+     *
+     * @param rowsParsed    Data rows read so far.
+     * @param rowsWritten   Rows handed to the database so far; trails rowsParsed by the rows still queued.
+     * @param chunksWritten Chunks written so far; the current chunk is the next one.
+     * @param rowsExpected  Estimated data rows of the sheets opened so far, or 0 when not known yet.
+     * @param rowsPerSecond Parse rate over roughly the last second. The pipeline's bounded queues keep
+     *                      parsing just ahead of writing, so this is also the rate the import sustains.
+     * @param elapsedMs     Time since the job started running.
+     */
+    public record Snapshot(long rowsParsed, long rowsWritten, long chunksWritten, long rowsExpected,
+                           double rowsPerSecond, long elapsedMs) {
+
+        /**
+         * @return The fraction of expected rows parsed (0..1), or -1 while the total is unknown, which is
+         *         also what ProgressBar takes as indeterminate.
+         */
+        public double fraction() {
+            return rowsExpected > 0 ? Math.min(1.0, (double) rowsParsed / rowsExpected) : -1;
+        }
+
+        /**
+         * @return The estimated time left, or null while the total or the rate is unknown.
+         */
+        public Duration eta() {
+            if (rowsExpected <= 0 || rowsPerSecond < 1) {
+                return null;
+            }
+            long remaining = Math.max(0, rowsExpected - rowsParsed);
+            return Duration.ofMillis((long) (remaining * 1000 / rowsPerSecond));
+        }
+
+        /**
+         * Combines the progress of jobs running side by side; rates add up, elapsed is the longest.
+         */
+        public Snapshot plus(Snapshot other) {
+            return new Snapshot(rowsParsed + other.rowsParsed, rowsWritten + other.rowsWritten,
+                    chunksWritten + other.chunksWritten, rowsExpected + other.rowsExpected,
+                    rowsPerSecond + other.rowsPerSecond, Math.max(elapsedMs, other.elapsedMs));
+        }
+
+        /**
+         * One-line summary suitable for the UI progress label.
+         */
+        public String summary() {
+            Duration eta = eta();
+            return String.format("%,d%s rows parsed, %,d written (chunk %d) | %,.0f rows/s | ETA %s",
+                    rowsParsed, rowsExpected > 0 ? String.format(" of ~%,d", rowsExpected) : "", rowsWritten,
+                    chunksWritten + 1, rowsPerSecond,
+                    eta != null ? String.format("%d:%02d", eta.toMinutes(), eta.toSecondsPart()) : "unknown");
+        }
+
+        /**
+         * One-line summary of a finished job, with its average rate.
+         */
+        public String finalSummary() {
+            return String.format("%,d rows parsed, %,d written in %d chunk(s) in %,d ms (%,.0f rows/s)",
+                    rowsParsed, rowsWritten, chunksWritten, elapsedMs, rowsParsed * 1000.0 / Math.max(1, elapsedMs));
+        }
+    }
+}
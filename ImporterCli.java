@@ -0,0 +1,222 @@
+package com.ppi.utility.importer;
+
+import com.ppi.utility.importer.service.BatchImportResult;
+import com.ppi.utility.importer.service.BatchImportService;
+import com.ppi.utility.importer.service.CaseMasterBatchWriter;
+import com.ppi.utility.importer.service.DryRunService;
+import com.ppi.utility.importer.service.ImportMetrics;
+import com.ppi.utility.importer.service.ImportMetricsSnapshot;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line entry point for scheduled loads and benchmark runs. Starts the Spring context without
+ * JavaFX (no toolkit, no FXML), imports the given files and directories with the batch import engine,
+ * and prints a one-line JSON summary:
+ * <pre>
+ *   java -cp importer.jar com.ppi.utility.importer.ImporterCli [options] file|dir...
+ *
+ *   --chunk-size=N       Rows per chunk (importer.persistence.chunk-size)
+ *   --parallelism=N      Sheets parsed and chunks written concurrently (importer.batch.*-concurrency)
+ *   --dry-run            Read, map and validate every row without connecting to the database
+ *   --dry-run-output=none|csv|jsonl  Discard the mapped rows, or write them next to each input
+ *   --summary-file=PATH  Also write the JSON summary to PATH
+ *   --any.spring.property=value is passed on to Spring
+ * </pre>
+ * All settings reach Spring as command-line arguments, so they override application.properties; when an
+ * option and a {@code --spring.property} name the same property, the later argument wins.
+ * The exit code is 0 when every file and sheet was imported (in a dry run: read and valid), 1 when any
+ * failed and 2 for a usage error.
+ */
+public final class ImporterCli {
+
+    private ImporterCli() {
+    }
+
+    public static void main(String[] args) {
+        List<File> inputs = new ArrayList<>();
+        Map<String, String> properties = new LinkedHashMap<>(); // Passed as --key=value; a null value is a bare flag
+        Integer chunkSize = null;
+        boolean dryRun = false;
+        DryRunService.Output dryRunOutput = null;
+        Path summaryFile = null;
+
+        try {
+            for (String arg : args) {
+                if (arg.equals("--dry-run")) {
+                    dryRun = true;
+                } else if (arg.startsWith("--dry-run-output=")) {
+                    dryRun = true;
+                    dryRunOutput = DryRunService.Output.valueOf(
+                            arg.substring("--dry-run-output=".length()).trim().toUpperCase(Locale.ROOT));
+                } else if (arg.startsWith("--chunk-size=")) {
+                    chunkSize = positive(arg);
+                    properties.put("importer.persistence.chunk-size", chunkSize.toString());
+                } else if (arg.startsWith("--parallelism=")) {
+                    String parallelism = Integer.toString(positive(arg));
+                    properties.put("importer.batch.parse-concurrency", parallelism);
+                    properties.put("importer.batch.writer-concurrency", parallelism);
+                    properties.put("importer.validation.parallelism", parallelism);
+                } else if (arg.startsWith("--summary-file=")) {
+                    summaryFile = Path.of(arg.substring("--summary-file=".length()));
+                } else if (arg.startsWith("--")) {
+                    int equals = arg.indexOf('=');
+                    String key = equals > 0 ? arg.substring(2, equals) : arg.substring(2);
+                    // One entry per property: Spring would join repeated arguments into a comma-separated value
+                    properties.put(key, equals > 0 ? arg.substring(equals + 1) : null);
+                    if (key.equals("importer.persistence.chunk-size")) {
+                        chunkSize = null; // Set directly; Spring converts and checks it
+                    }
+                } else {
+                    inputs.add(new File(arg));
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("No files or directories given.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: ImporterCli [--chunk-size=N] [--parallelism=N] [--dry-run[-output=none|csv|jsonl]] [--summary-file=PATH] file|dir...");
+            System.exit(2);
+            return;
+        }
+
+        properties.putIfAbsent("spring.main.banner-mode", "off");
+        properties.putIfAbsent("spring.main.lazy-initialization", "true"); // Only the beans the import needs are created
+        if (dryRun) {
+            // Hibernate would otherwise open a connection at boot to read the database metadata
+            properties.putIfAbsent("spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access", "false");
+            properties.putIfAbsent("spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults", "false");
+        }
+        List<String> springArgs = new ArrayList<>();
+        properties.forEach((key, value) -> springArgs.add("--" + key + (value != null ? "=" + value : "")));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                .headless(true)
+                .run(springArgs.toArray(new String[0]));
+
+        int exitCode;
+        try {
+            if (chunkSize != null && !dryRun) {
+                int effective = context.getBean(CaseMasterBatchWriter.class).getChunkSize();
+                if (effective != chunkSize) {
+                    throw new IllegalStateException("--chunk-size=" + chunkSize + " was not applied; the writer uses "
+                            + effective + " rows per chunk.");
+                }
+            }
+            exitCode = run(context, inputs, dryRun, dryRunOutput, summaryFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        int finalExitCode = exitCode;
+        System.exit(SpringApplication.exit(context, () -> finalExitCode));
+    }
+
+    private static int run(ConfigurableApplicationContext context, List<File> inputs, boolean dryRun,
+                           DryRunService.Output dryRunOutput, Path summaryFile) throws IOException {
+        ImportMetrics importMetrics = context.getBean(ImportMetrics.class);
+        resetPeakHeap();
+        ImportMetricsSnapshot before = importMetrics.snapshot();
+        long start = System.nanoTime();
+
+        long rowsRead;
+        long rowsWritten;
+        int files;
+        int failures;
+        if (dryRun) {
+            DryRunService dryRunService = context.getBean(DryRunService.class);
+            List<File> expanded = BatchImportService.expand(inputs);
+            files = expanded.size();
+            failures = 0;
+            rowsRead = 0;
+            for (File file : expanded) {
+                try {
+                    DryRunService.DryRunResult result = dryRunOutput != null
+                            ? dryRunService.run(file, dryRunOutput)
+                            : dryRunService.run(file);
+                    rowsRead += result.rowsRead();
+                    if (!result.validation().valid()) {
+                        failures++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Unable to read " + file.getName() + ": " + e.getMessage());
+                    failures++;
+                }
+            }
+            rowsWritten = 0;
+        } else {
+            BatchImportResult result = context.getBean(BatchImportService.class).importFiles(inputs);
+            System.err.println(result.summary());
+            files = result.files().size();
+            failures = (int) (result.failedSheetCount() + result.files().stream().filter(file -> file.error() != null).count());
+            rowsRead = result.totalRowsRead();
+            rowsWritten = result.totalRowsWritten();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        ImportMetricsSnapshot after = importMetrics.snapshot();
+        String summary = String.format(Locale.ROOT,
+                "{\"dryRun\":%b,\"files\":%d,\"failures\":%d,\"rowsRead\":%d,\"rowsWritten\":%d,\"elapsedMs\":%d,"
+                        + "\"rowsPerSec\":%.1f,\"parseMs\":%.0f,\"writeMs\":%.0f,\"peakHeapMb\":%d}",
+                dryRun, files, failures, rowsRead, rowsWritten, elapsedNanos / 1_000_000,
+                rowsRead * 1_000_000_000.0 / Math.max(1, elapsedNanos),
+                after.sheetReadTotalMs() - before.sheetReadTotalMs(),
+                after.writeTotalMs() - before.writeTotalMs(),
+                peakHeap() / (1024 * 1024));
+        System.out.println(summary);
+        if (summaryFile != null) {
+            Files.writeString(summaryFile, summary + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+        return failures == 0 ? 0 : 1;
+    }
+
+    private static int positive(String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number: " + arg);
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the heap pools' peak usage since resetPeakHeap; pools peak at different times, so this is an upper bound.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
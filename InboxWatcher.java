@@ -0,0 +1,379 @@
+package com.ppi.utility.importer.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class that imports files dropped into an inbox directory, for unattended (headless) intake.
+ * <p>
+ * The inbox is watched with a WatchService; files present at startup are picked up as well. A file is
+ * only imported once its size and modification time have stayed the same for
+ * {@code importer.watch.stable-for}, so a file still being copied in is never read half-written.
+ * Each file becomes a job on the ImportJobScheduler, so files are imported in parallel up to
+ * {@code importer.jobs.workers}, through the same ExcelService logic as an upload. Imported files are
+ * moved to the done directory; failed ones to the failed directory, together with their validation
+ * report (if any) and a {@code <name>.error.txt} holding the error.
+ * <p>
+ * A move can fail after the import, e.g. on Windows while a memory-mapped CSV is still locked. The watcher
+ * then retries it with exponential backoff (poll-interval doubling up to a minute). Before moving an
+ * imported file, a hidden {@code .<name>.imported} marker holding its size and modification time is
+ * written next to it, so a file still in the inbox after a restart is moved to done instead of being
+ * imported again. A changed file with the same name is imported as usual.
+ */
+@Service
+public class InboxWatcher {
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long MAX_MOVE_BACKOFF_MILLIS = 60_000;
+
+    private final ExcelService excelService;
+    private final ImportJobScheduler importJobScheduler;
+    private final ValidationReportWriter reportWriter;
+    private final String inboxSetting;
+    private final String doneSetting;
+    private final String failedSetting;
+    private final long stableForNanos;
+    private final long pollMillis;
+
+    // Owned by the watcher thread
+    private final Map<Path, Observation> pending = new HashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet(); // Files handed to the scheduler; shared with workers
+    private final Map<Path, RetryMove> retryMoves = new ConcurrentHashMap<>(); // Finished files whose move failed
+
+    private Path inbox;
+    private Path doneDir;
+    private Path failedDir;
+    private volatile WatchService watchService;
+    private volatile Thread watcherThread;
+
+    @Autowired
+    public InboxWatcher(ExcelService excelService,
+                        ImportJobScheduler importJobScheduler,
+                        ValidationReportWriter reportWriter,
+                        @Value("${importer.watch.inbox:}") String inbox,
+                        @Value("${importer.watch.done-dir:}") String doneDir,
+                        @Value("${importer.watch.failed-dir:}") String failedDir,
+                        @Value("${importer.watch.stable-for:5s}") Duration stableFor,
+                        @Value("${importer.watch.poll-interval:1s}") Duration pollInterval) {
+        this.excelService = excelService;
+        this.importJobScheduler = importJobScheduler;
+        this.reportWriter = reportWriter;
+        this.inboxSetting = inbox;
+        this.doneSetting = doneDir;
+        this.failedSetting = failedDir;
+        this.stableForNanos = stableFor.toNanos();
+        this.pollMillis = Math.max(100, pollInterval.toMillis());
+    }
+
+    /**
+     * Starts watching on a non-daemon thread, which keeps a headless JVM alive until the context is closed.
+     *
+     * @throws IOException If the directories cannot be created or the inbox cannot be watched.
+     */
+    public synchronized void start() throws IOException {
+        if (watcherThread != null) {
+            return;
+        }
+        if (inboxSetting.isBlank()) {
+            throw new IllegalStateException("Set importer.watch.inbox to the directory to watch.");
+        }
+        inbox = Path.of(inboxSetting).toAbsolutePath();
+        doneDir = doneSetting.isBlank() ? inbox.resolve("done") : Path.of(doneSetting).toAbsolutePath();
+        failedDir = failedSetting.isBlank() ? inbox.resolve("failed") : Path.of(failedSetting).toAbsolutePath();
+        Files.createDirectories(inbox);
+        Files.createDirectories(doneDir);
+        Files.createDirectories(failedDir);
+
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        scanInbox(); // Files dropped while the importer was not running
+
+        watcherThread = new Thread(this::watch, "inbox-watcher");
+        watcherThread.start();
+        System.out.println("Watching " + inbox + " (done: " + doneDir + ", failed: " + failedDir + ")");
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (watcherThread == null) {
+            return;
+        }
+        try {
+            watchService.close(); // Wakes the watcher thread
+        } catch (IOException e) {
+            System.err.println("Unable to close the inbox watch service: " + e.getMessage());
+        }
+        watcherThread.interrupt();
+        watcherThread = null;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanInbox(); // Events were lost; fall back to a listing
+                        } else {
+                            observe(inbox.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                submitStableFiles();
+                retryMoves();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        } catch (IOException e) {
+            System.err.println("Inbox watcher stopped: " + e.getMessage());
+        }
+    }
+
+    private void scanInbox() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inbox)) {
+            for (Path entry : entries) {
+                observe(entry);
+            }
+        }
+    }
+
+    /**
+     * Adds a candidate file; its stability clock starts at the first size check.
+     */
+    private void observe(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || name.startsWith("~$")
+                || !BatchImportService.isImportable(name) || inFlight.contains(file)) {
+            return; // Hidden, lock or report files, and files already being imported
+        }
+        if (isMarkedImported(file)) {
+            System.out.println("[" + name + "] Already imported; moving it to " + doneDir);
+            inFlight.add(file);
+            moveOut(file, doneDir, null, 1);
+            return;
+        }
+        pending.putIfAbsent(file, new Observation(-1, -1, System.nanoTime()));
+    }
+
+    /**
+     * Submits every pending file whose size and modification time have not changed for stable-for.
+     */
+    private void submitStableFiles() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Observation>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Observation> entry = iterator.next();
+            Path file = entry.getKey();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                iterator.remove(); // Deleted or moved away before it settled
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                iterator.remove();
+                continue;
+            }
+
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            Observation last = entry.getValue();
+            if (size != last.size || modified != last.modified) {
+                entry.setValue(new Observation(size, modified, now)); // Still changing
+            } else if (size > 0 && now - last.since >= stableForNanos) {
+                iterator.remove();
+                submit(file);
+            }
+        }
+    }
+
+    private void submit(Path file) {
+        inFlight.add(file);
+        File input = file.toFile();
+        ImportJob job;
+        try {
+            job = importJobScheduler.submit(input.getName(), ImportJob.Priority.NORMAL,
+                    () -> excelService.isCheckpointEnabled()
+                            ? excelService.processExcelFileCheckpointed(input)
+                            : excelService.processExcelFile(input));
+        } catch (IllegalStateException e) {
+            inFlight.remove(file);
+            pending.put(file, new Observation(-1, -1, System.nanoTime())); // Queue full; retry later
+            return;
+        }
+        job.completion().whenComplete((result, exception) -> {
+            if (exception == null) {
+                System.out.println("[" + input.getName() + "] " + result);
+                try {
+                    writeMarker(file); // Outlives a failed move, so a restart does not import the file again
+                } catch (IOException e) {
+                    System.err.println("[" + input.getName() + "] Unable to mark as imported: " + e.getMessage());
+                }
+                moveOut(file, doneDir, null, 1);
+            } else if (job.getState() != ImportJob.State.CANCELLED) {
+                String message = exception.getMessage() != null ? exception.getMessage() : exception.toString();
+                System.err.println("[" + input.getName() + "] Import failed: " + message);
+                moveOut(file, failedDir, message, 1);
+            } else {
+                inFlight.remove(file); // A cancelled file stays in the inbox and is picked up again on the next start
+            }
+        });
+    }
+
+    /**
+     * Moves a finished file out of the inbox, with its validation report and error file if it failed.
+     * If the move fails the file stays in flight (so it is not imported again) and the watcher retries it.
+     *
+     * @param error   The import error, or null if the file was imported.
+     * @param attempt 1 for the first attempt.
+     */
+    private void moveOut(Path file, Path targetDir, String error, int attempt) {
+        String name = file.getFileName().toString();
+        Path moved;
+        try {
+            moved = moveTo(file, targetDir);
+        } catch (IOException e) {
+            long delayMillis = Math.min(MAX_MOVE_BACKOFF_MILLIS, pollMillis << Math.min(attempt - 1, 16));
+            System.err.println("[" + name + "] Unable to move out of the inbox (attempt " + attempt + "), retrying in "
+                    + delayMillis + " ms: " + e.getMessage());
+            retryMoves.put(file, new RetryMove(targetDir, error, attempt + 1,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis)));
+            return;
+        }
+        try {
+            if (error != null) {
+                Path report = reportWriter.reportPath(file.toFile());
+                if (Files.exists(report)) {
+                    moveTo(report, targetDir);
+                }
+                Files.writeString(moved.resolveSibling(moved.getFileName() + ".error.txt"), error + System.lineSeparator(),
+                        StandardCharsets.UTF_8);
+            }
+            Files.deleteIfExists(markerPath(file));
+        } catch (IOException e) {
+            System.err.println("[" + name + "] Moved to " + targetDir + ", but: " + e.getMessage());
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    /**
+     * Retries the moves that are due; runs on the watcher thread.
+     */
+    private void retryMoves() {
+        long now = System.nanoTime();
+        for (Map.Entry<Path, RetryMove> entry : retryMoves.entrySet()) {
+            Path file = entry.getKey();
+            RetryMove retry = entry.getValue();
+            if (now - retry.dueNanos() < 0 || !retryMoves.remove(file, retry)) {
+                continue;
+            }
+            if (Files.exists(file)) {
+                moveOut(file, retry.targetDir(), retry.error(), retry.attempt());
+            } else {
+                try {
+                    Files.deleteIfExists(markerPath(file)); // Moved or deleted by hand
+                } catch (IOException e) {
+                    System.err.println("[" + file.getFileName() + "] Unable to remove the imported marker: " + e.getMessage());
+                }
+                inFlight.remove(file);
+            }
+        }
+    }
+
+    private static Path markerPath(Path file) {
+        return file.resolveSibling("." + file.getFileName() + ".imported");
+    }
+
+    /**
+     * Records that the file, as it is now, was imported.
+     */
+    private static void writeMarker(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Files.writeString(markerPath(file), attributes.size() + " " + attributes.lastModifiedTime().toMillis(),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return True if the file has an imported marker matching its current size and modification time.
+     *         A stale marker, left by an earlier file with the same name, is removed.
+     */
+    private static boolean isMarkedImported(Path file) {
+        Path marker = markerPath(file);
+        try {
+            if (!Files.exists(marker)) {
+                return false;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String expected = attributes.size() + " " + attributes.lastModifiedTime().toMillis();
+            if (expected.equals(Files.readString(marker, StandardCharsets.UTF_8).trim())) {
+                return true;
+            }
+            Files.deleteIfExists(marker);
+        } catch (IOException e) {
+            // File or marker vanished; treat it as a new file
+        }
+        return false;
+    }
+
+    /**
+     * Moves a file into the target directory, adding a timestamp to the name if it is already taken there.
+     *
+     * @return The new location.
+     */
+    private static Path moveTo(Path file, Path targetDir) throws IOException {
+        String name = file.getFileName().toString();
+        Path target = targetDir.resolve(name);
+        if (Files.exists(target)) {
+            int dot = name.lastIndexOf('.');
+            String suffix = "-" + LocalDateTime.now().format(SUFFIX_FORMAT);
+            target = targetDir.resolve(dot > 0 ? name.substring(0, dot) + suffix + name.substring(dot) : name + suffix);
+        }
+        try {
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            return Files.move(file, target); // Target directory on another file system
+        }
+    }
+
+    /**
+     * Size and modification time of a pending file, and since when they have been unchanged.
+     */
+    private record Observation(long size, long modified, long since) {
+    }
+
+    /**
+     * A move out of the inbox to try again once dueNanos is reached.
+     */
+    private record RetryMove(Path targetDir, String error, int attempt, long dueNanos) {
+    }
+}
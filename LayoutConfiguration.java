@@ -0,0 +1,40 @@
+package com.ppi.utility.importer.config;
+
+import com.ppi.utility.importer.service.SheetLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the SheetLayout shared by the readers, CaseMasterRowMapper and RowValidator from {@code importer.layout}.
+ * The keys can live in application.properties, an application.yml, or a broker-specific file pulled in with
+ * {@code spring.config.import}, so a new spreadsheet layout needs no code change. Without
+ * {@code importer.layout.columns}, the built-in columns (SheetLayout.DEFAULT_COLUMNS, scanned B to I) are used.
+ */
+@Configuration
+public class LayoutConfiguration {
+
+    @Bean
+    public SheetLayout sheetLayout(Environment environment,
+                                   @Value("${importer.layout.submitted-ts-cell:D6}") String submittedTsCell,
+                                   @Value("${importer.layout.first-data-row:10}") int firstDataRow,
+                                   @Value("${importer.layout.scan-columns:}") String scanColumns) {
+        Map<String, String> columns = Binder.get(environment)
+                .bind("importer.layout.columns", Bindable.mapOf(String.class, String.class))
+                .map(map -> (Map<String, String>) new LinkedHashMap<>(map))
+                .orElse(Map.of());
+        if (columns.isEmpty()) {
+            columns = SheetLayout.DEFAULT_COLUMNS;
+            scanColumns = scanColumns.isBlank() ? "B:I" : scanColumns;
+        }
+        SheetLayout layout = new SheetLayout(submittedTsCell, firstDataRow, scanColumns, columns);
+        System.out.println("Sheet layout: " + layout);
+        return layout;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ppi.utility.importer;
 
+import com.ppi.utility.importer.service.InboxWatcher;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -8,11 +9,16 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Main application class that integrates Spring Boot with JavaFX.
- * This class serves as the entry point for the desktop application.
+ * This class serves as the entry point for the desktop application, and for the headless
+ * watched-folder mode ({@code --headless}) in which no JavaFX stage is created.
  */
 @SpringBootApplication
 public class MainApplication extends Application {
@@ -71,6 +77,29 @@ public class MainApplication extends Application {
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        if (List.of(args).contains("--headless")) {
+            runHeadless(args);
+            return;
+        }
         launch(args); // Launches the JavaFX application
     }
+
+    /**
+     * Starts the Spring context without JavaFX and imports whatever arrives in importer.watch.inbox.
+     * The watcher thread keeps the JVM running; stop it with Ctrl+C or SIGTERM, which closes the context.
+     *
+     * @param args Command line arguments, passed on to Spring (e.g. --importer.watch.inbox=/data/inbox).
+     */
+    private static void runHeadless(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                .headless(true)
+                .run(args);
+        try {
+            context.getBean(InboxWatcher.class).start();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to start the inbox watcher: " + e.getMessage());
+            context.close();
+            System.exit(1);
+        }
+    }
 }
@@ -1,18 +1,34 @@
 package com.ppi.utility.importer;
 
+import com.ppi.utility.importer.service.BatchImportService;
 import com.ppi.utility.importer.service.ExcelService;
+import com.ppi.utility.importer.service.ImportJob;
+import com.ppi.utility.importer.service.ImportJobScheduler;
+import com.ppi.utility.importer.service.ImportMetrics;
+import com.ppi.utility.importer.service.ImportMetricsSnapshot;
+import com.ppi.utility.importer.service.ImportProgress;
+import com.ppi.utility.importer.service.ValidationReport;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * JavaFX Controller for the main-view.fxml.
@@ -26,15 +42,42 @@ public class MainController {
     @FXML
     private Button uploadButton;
 
+    @FXML
+    private Button validateButton;
+
+    @FXML
+    private Button cancelButton;
+
     @FXML
     private Label messageLabel;
 
+    @FXML
+    private Label metricsLabel;
+
+    @FXML
+    private ProgressBar progressBar;
+
+    @FXML
+    private Label progressLabel;
+
     private final ExcelService excelService;
+    private final BatchImportService batchImportService;
+    private final ImportMetrics importMetrics;
+    private final ImportJobScheduler importJobScheduler;
+    private ImportMetricsSnapshot lastSnapshot;
+
+    // Latest progress event per running job, written by the progress ticker and read on the FX thread
+    private final Map<ImportJob, ImportProgress.Snapshot> jobProgress = new ConcurrentHashMap<>();
+    private final AtomicBoolean progressRefreshPending = new AtomicBoolean();
 
     // Use constructor injection for Spring-managed services
     @Autowired
-    public MainController(ExcelService excelService) {
+    public MainController(ExcelService excelService, BatchImportService batchImportService, ImportMetrics importMetrics,
+                          ImportJobScheduler importJobScheduler) {
         this.excelService = excelService;
+        this.batchImportService = batchImportService;
+        this.importMetrics = importMetrics;
+        this.importJobScheduler = importJobScheduler;
     }
 
     /**
@@ -43,62 +86,172 @@ public class MainController {
     @FXML
     public void initialize() {
         messageLabel.setText("Click 'Upload File' to select an Excel document.");
+        cancelButton.setDisable(true);
+
+        // Refresh the metrics summary once a second; the timeline runs on the JavaFX Application Thread
+        lastSnapshot = importMetrics.snapshot();
+        Timeline metricsRefresh = new Timeline(new KeyFrame(Duration.seconds(1), event -> refreshMetrics()));
+        metricsRefresh.setCycleCount(Animation.INDEFINITE);
+        metricsRefresh.play();
+    }
+
+    private void refreshMetrics() {
+        ImportMetricsSnapshot snapshot = importMetrics.snapshot();
+        metricsLabel.setText(snapshot.summary(lastSnapshot));
+        lastSnapshot = snapshot;
+    }
+
+    /**
+     * Receives a job's progress events (at most 10 per second per job) on the progress ticker thread.
+     * Events that arrive while a refresh is already queued only replace the job's entry, so the
+     * JavaFX Application Thread is never sent more than one pending refresh.
+     */
+    private void onProgress(ImportJob job, ImportProgress.Snapshot snapshot) {
+        jobProgress.put(job, snapshot);
+        if (progressRefreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                progressRefreshPending.set(false);
+                refreshProgress();
+            });
+        }
+    }
+
+    /**
+     * Shows the combined progress of the running jobs; runs on the JavaFX Application Thread.
+     */
+    private void refreshProgress() {
+        jobProgress.keySet().removeIf(job -> job.getState().isFinished()); // Late ticks of jobs that just ended
+        ImportProgress.Snapshot total = null;
+        for (ImportProgress.Snapshot snapshot : jobProgress.values()) {
+            total = total == null ? snapshot : total.plus(snapshot);
+        }
+        if (total == null) {
+            return;
+        }
+        progressBar.setProgress(total.fraction()); // -1 (indeterminate) until a sheet's size is known
+        progressLabel.setText((jobProgress.size() > 1 ? jobProgress.size() + " jobs: " : "") + total.summary());
     }
 
     /**
      * Handles the action when the "Upload File" button is clicked.
+     * A single file is imported in one transaction; several files are handed to the batch import engine.
      */
     @FXML
     private void onUploadButtonClick() {
         FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Select Excel File");
+        fileChooser.setTitle("Select Excel File(s)");
         fileChooser.getExtensionFilters().addAll(
                 new FileChooser.ExtensionFilter("Excel Files", "*.xlsx", "*.xls"),
+                new FileChooser.ExtensionFilter("CSV/TSV Files", "*.csv", "*.tsv"),
                 new FileChooser.ExtensionFilter("All Files", "*.*")
         );
 
         // Get the current stage to show the file chooser dialog
         Stage stage = (Stage) uploadButton.getScene().getWindow();
-        File selectedFile = fileChooser.showOpenDialog(stage);
-
-        if (selectedFile != null) {
-            messageLabel.setText("Upload successful. Processing...");
-            uploadButton.setDisable(true); // Disable button during processing
-
-            // Create a Task to perform the long-running operation in a background thread
-            Task<String> processTask = new Task<>() {
-                @Override
-                protected String call() throws Exception {
-                    // This code runs in a background thread
-                    return excelService.processExcelFile(selectedFile);
-                }
+        List<File> selectedFiles = fileChooser.showOpenMultipleDialog(stage);
 
-                @Override
-                protected void succeeded() {
-                    // This code runs on the JavaFX Application Thread
-                    messageLabel.setText(getValue()); // Display success message
-                    uploadButton.setDisable(false); // Re-enable button
+        if (selectedFiles != null && !selectedFiles.isEmpty()) {
+            String jobName = selectedFiles.size() == 1 ? selectedFiles.get(0).getName() : selectedFiles.size() + " files";
+            // The job runs on the scheduler's bounded worker pool; further uploads queue behind it
+            submitJob(jobName, () -> {
+                if (selectedFiles.size() == 1) {
+                    File file = selectedFiles.get(0);
+                    return excelService.isCheckpointEnabled()
+                            ? excelService.processExcelFileCheckpointed(file)
+                            : excelService.processExcelFile(file);
                 }
+                return batchImportService.importFiles(selectedFiles).summary();
+            });
+        } else {
+            messageLabel.setText("File upload cancelled.");
+        }
+    }
+
+    /**
+     * Handles the action when the "Validate File" button is clicked.
+     * Checks the selected files against the validation rules without touching the database;
+     * an error report is written next to every file that fails.
+     */
+    @FXML
+    private void onValidateButtonClick() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Excel File(s) to Validate");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Excel Files", "*.xlsx", "*.xls"),
+                new FileChooser.ExtensionFilter("CSV/TSV Files", "*.csv", "*.tsv"),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
 
-                @Override
-                protected void failed() {
-                    // This code runs on the JavaFX Application Thread
-                    Throwable exception = getException();
-                    String errorMessage = "Error: " + (exception != null ? exception.getMessage() : "Unknown error.");
-                    messageLabel.setText(errorMessage); // Display error message
-                    System.err.println("Error processing Excel file: " + errorMessage);
-                    if (exception != null) {
-                        exception.printStackTrace();
-                    }
-                    uploadButton.setDisable(false); // Re-enable button
+        Stage stage = (Stage) validateButton.getScene().getWindow();
+        List<File> selectedFiles = fileChooser.showOpenMultipleDialog(stage);
+        if (selectedFiles == null || selectedFiles.isEmpty()) {
+            messageLabel.setText("Validation cancelled.");
+            return;
+        }
+
+        submitJob("Validate " + selectedFiles.size() + " file(s)", () -> {
+            StringBuilder summary = new StringBuilder();
+            for (File file : selectedFiles) {
+                ValidationReport report = excelService.validateFile(file);
+                if (!summary.isEmpty()) {
+                    summary.append(System.lineSeparator());
                 }
-            };
+                summary.append(report.summary());
+            }
+            return summary.toString();
+        });
+    }
 
-            // Start the task in a new thread
-            new Thread(processTask).start();
+    /**
+     * Handles the action when the "Cancel" button is clicked: queued jobs are dropped and running
+     * jobs stop at their next chunk boundary.
+     */
+    @FXML
+    private void onCancelButtonClick() {
+        int active = importJobScheduler.getActiveCount();
+        importJobScheduler.cancelAll();
+        messageLabel.setText(active > 0 ? "Cancelling " + active + " job(s)..." : "Nothing to cancel.");
+    }
 
-        } else {
-            messageLabel.setText("File upload cancelled.");
+    /**
+     * Queues work on the ImportJobScheduler and reports its outcome in the message label.
+     */
+    private void submitJob(String name, Callable<String> work) {
+        ImportJob job;
+        try {
+            job = importJobScheduler.submit(name, ImportJob.Priority.NORMAL, work);
+        } catch (IllegalStateException e) {
+            messageLabel.setText("Error: " + e.getMessage()); // Queue is full
+            return;
         }
+        messageLabel.setText("Queued job #" + job.getId() + ": " + name + " (" + importJobScheduler.getActiveCount()
+                + " job(s) queued or running).");
+        cancelButton.setDisable(false);
+        job.getProgress().addListener(snapshot -> onProgress(job, snapshot));
+
+        job.completion().whenComplete((result, exception) -> Platform.runLater(() -> {
+            // This code runs on the JavaFX Application Thread
+            jobProgress.remove(job);
+            if (jobProgress.isEmpty()) {
+                // Keep the final figures of the last job; a finished bar is full, a failed one empty
+                progressBar.setProgress(exception == null ? 1.0 : 0.0);
+                if (job.getStartedAt() != null) {
+                    progressLabel.setText(job.getProgress().snapshot().finalSummary());
+                }
+            } else {
+                refreshProgress();
+            }
+            if (job.getState() == ImportJob.State.CANCELLED) {
+                messageLabel.setText("Job #" + job.getId() + " cancelled" + (result != null ? ": " + result : "."));
+            } else if (exception == null) {
+                messageLabel.setText(result); // Display success message
+            } else {
+                String errorMessage = "Error: " + (exception.getMessage() != null ? exception.getMessage() : "Unknown error.");
+                messageLabel.setText(errorMessage); // Display error message
+                System.err.println("Error processing " + name + ": " + errorMessage);
+                exception.printStackTrace();
+            }
+            cancelButton.setDisable(importJobScheduler.getActiveCount() == 0);
+        }));
     }
 }
@@ -0,0 +1,90 @@
+package com.ppi.utility.importer.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds the MeterRegistry used by ImportMetrics from {@code importer.metrics.registries}:
+ * <ul>
+ *   <li>{@code memory} - in-process values only; backs the live summary in the main window</li>
+ *   <li>{@code jmx} - exposes every meter as an MBean under the {@code ppi.importer} domain (JConsole, VisualVM)</li>
+ *   <li>{@code log} - writes all non-zero meters every {@code importer.metrics.log-interval}</li>
+ * </ul>
+ * None of these need a network endpoint. The registry is also added to Micrometer's global registry
+ * so that classes Hibernate instantiates (BlockSequenceIdGenerator) record into the same meters.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    private CompositeMeterRegistry meterRegistry;
+
+    @Bean(destroyMethod = "")
+    public MeterRegistry meterRegistry(@Value("${importer.metrics.registries:memory}") List<String> registries,
+                                       @Value("${importer.metrics.log-interval:60s}") Duration logInterval) {
+        CompositeMeterRegistry composite = new CompositeMeterRegistry();
+        for (String name : registries) {
+            if (name.isBlank()) {
+                continue;
+            }
+            composite.add(switch (name.trim().toLowerCase()) {
+                case "memory" -> new SimpleMeterRegistry();
+                case "jmx" -> new JmxMeterRegistry(new JmxConfig() {
+                    @Override
+                    public String get(String key) {
+                        return null;
+                    }
+
+                    @Override
+                    public String domain() {
+                        return "ppi.importer";
+                    }
+                }, Clock.SYSTEM);
+                case "log" -> new LoggingMeterRegistry(new LoggingRegistryConfig() {
+                    @Override
+                    public String get(String key) {
+                        return null;
+                    }
+
+                    @Override
+                    public Duration step() {
+                        return logInterval;
+                    }
+                }, Clock.SYSTEM);
+                default -> throw new IllegalArgumentException("Unknown importer.metrics.registries entry '" + name
+                        + "'; expected memory, jmx or log.");
+            });
+        }
+        if (composite.getRegistries().isEmpty()) {
+            composite.add(new SimpleMeterRegistry()); // Meters without a child registry would record nothing
+        }
+        Metrics.addRegistry(composite);
+        meterRegistry = composite;
+        return composite;
+    }
+
+    /**
+     * Closes each reporter so the log registry publishes its final step and JMX beans are unregistered.
+     */
+    @PreDestroy
+    public void closeRegistries() {
+        if (meterRegistry != null) {
+            Metrics.removeRegistry(meterRegistry);
+            meterRegistry.getRegistries().forEach(MeterRegistry::close);
+            meterRegistry.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Single-pass decoder for a range of cells in a row, backed by a reusable buffer.
+ * <p>
+ * Each cell is read exactly once per row (formulas evaluated once, date formats checked once)
+ * into typed slots. The end-of-data check then works on those slots without creating Strings,
+ * and text is only produced for rows that are actually mapped. This replaces the old pattern
+ * where isRowEmpty converted every cell to a String and the mapping converted them all again.
+ * <p>
+ * Not thread-safe; one decoder per sheet being read.
+ */
+public final class RowDecoder {
+
+    /**
+     * What a decoded cell holds. The text produced for each kind matches the former
+     * ExcelService.getCellValueAsString.
+     */
+    public enum ValueKind {
+        EMPTY,          // Missing, blank or error cell
+        TEXT,           // String cell, or formula with a string result
+        NUMBER,         // Plain numeric cell, rendered as a whole number
+        DATE,           // Date-formatted numeric cell
+        FORMULA_NUMBER, // Formula with a numeric result, rendered as a double
+        BOOLEAN,        // Boolean cell or formula result
+        FORMULA_ERROR   // Formula that evaluated to an error, rendered as "ERROR"
+    }
+
+    private final CellConversionContext conversion;
+    private final int firstColumn;
+    private final int lastColumn;
+
+    // Reusable slots indexed by column; only the slots of the current kind are meaningful
+    private final ValueKind[] kinds;
+    private final String[] texts;
+    private final double[] numbers;
+    private final boolean[] booleans;
+    private final Cell[] cells;
+
+    /**
+     * @param conversion  The evaluator/formatter context of the workbook being read.
+     * @param firstColumn The first column to decode (inclusive, 0-based).
+     * @param lastColumn  The last column to decode (inclusive, 0-based).
+     */
+    public RowDecoder(CellConversionContext conversion, int firstColumn, int lastColumn) {
+        this.conversion = conversion;
+        this.firstColumn = firstColumn;
+        this.lastColumn = lastColumn;
+        this.kinds = new ValueKind[lastColumn + 1];
+        this.texts = new String[lastColumn + 1];
+        this.numbers = new double[lastColumn + 1];
+        this.booleans = new boolean[lastColumn + 1];
+        this.cells = new Cell[lastColumn + 1];
+        Arrays.fill(kinds, ValueKind.EMPTY);
+    }
+
+    /**
+     * Reads every cell in the column range of the given row into the buffer, replacing the previous row.
+     *
+     * @param row The row to decode; null decodes as an empty row.
+     */
+    public void decode(Row row) {
+        for (int col = firstColumn; col <= lastColumn; col++) {
+            Cell cell = row != null ? row.getCell(col) : null;
+            cells[col] = cell;
+            texts[col] = null;
+            kinds[col] = cell == null ? ValueKind.EMPTY : decodeCell(cell, col);
+        }
+    }
+
+    private ValueKind decodeCell(Cell cell, int col) {
+        switch (cell.getCellType()) {
+            case STRING:
+                texts[col] = cell.getStringCellValue();
+                return ValueKind.TEXT;
+            case NUMERIC:
+                numbers[col] = cell.getNumericCellValue();
+                return DateUtil.isCellDateFormatted(cell) ? ValueKind.DATE : ValueKind.NUMBER;
+            case BOOLEAN:
+                booleans[col] = cell.getBooleanCellValue();
+                return ValueKind.BOOLEAN;
+            case FORMULA:
+                CellValue cellValue = conversion.evaluate(cell);
+                switch (cellValue.getCellType()) {
+                    case STRING:
+                        texts[col] = cellValue.getStringValue();
+                        return ValueKind.TEXT;
+                    case NUMERIC:
+                        numbers[col] = cellValue.getNumberValue();
+                        return ValueKind.FORMULA_NUMBER;
+                    case BOOLEAN:
+                        booleans[col] = cellValue.getBooleanValue();
+                        return ValueKind.BOOLEAN;
+                    case ERROR:
+                        return ValueKind.FORMULA_ERROR;
+                    default:
+                        return ValueKind.EMPTY;
+                }
+            default:
+                return ValueKind.EMPTY; // BLANK and ERROR cells
+        }
+    }
+
+    /**
+     * @return true if every decoded cell is empty or whitespace-only. Creates no objects.
+     */
+    public boolean isEmpty() {
+        for (int col = firstColumn; col <= lastColumn; col++) {
+            ValueKind kind = kinds[col];
+            if (kind == ValueKind.TEXT ? !isBlank(texts[col]) : kind != ValueKind.EMPTY) {
+                return false; // Found non-empty cell
+            }
+        }
+        return true; // All cells in range are empty
+    }
+
+    public ValueKind getKind(int col) {
+        return kinds[col];
+    }
+
+    /**
+     * @return The text of the decoded cell, or null if it is empty.
+     */
+    public String getString(int col) {
+        return switch (kinds[col]) {
+            case TEXT -> texts[col];
+            case NUMBER -> String.valueOf((long) numbers[col]); // Avoid scientific notation for references
+            case DATE -> cells[col].getDateCellValue().toString();
+            case FORMULA_NUMBER -> String.valueOf(numbers[col]);
+            case BOOLEAN -> String.valueOf(booleans[col]);
+            case FORMULA_ERROR -> "ERROR";
+            case EMPTY -> null;
+        };
+    }
+
+    /**
+     * @return The date of a date-formatted numeric cell, or null for any other kind.
+     */
+    public LocalDate getDate(int col) {
+        if (kinds[col] != ValueKind.DATE) {
+            return null;
+        }
+        return cells[col].getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Copies the decoded row out of the reusable buffer into an immutable SheetRow.
+     */
+    public SheetRow toSheetRow(int rowIndex, Timestamp submittedTs) {
+        String[] values = new String[lastColumn + 1];
+        LocalDate[] dates = new LocalDate[lastColumn + 1];
+        for (int col = firstColumn; col <= lastColumn; col++) {
+            values[col] = getString(col);
+            dates[col] = getDate(col);
+        }
+        return new SheetRow(rowIndex, submittedTs, values, dates);
+    }
+
+    /**
+     * Equivalent to {@code value.trim().isEmpty()} without allocating the trimmed copy.
+     */
+    public static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ppi.utility.importer.service;
+
+import com.ppi.utility.importer.model.CaseMaster;
+import jakarta.persistence.Column;
+import org.apache.poi.ss.util.CellReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based validation of parsed rows, run before any database work (see ValidationService).
+ * <p>
+ * Rules are built once at startup:
+ * <ul>
+ *   <li>maximum length, from the {@code @Column(length = ...)} of the CaseMaster field each column maps to
+ *   in the SheetLayout</li>
+ *   <li>mandatory columns, from {@code importer.validation.mandatory-columns}</li>
+ *   <li>UK post code format, if postCode is mapped</li>
+ *   <li>if dateOfBirth is mapped, DATE_OF_BIRTH must be a date, not before {@code importer.validation.dob-earliest} and not in the future
+ *   (the importer would otherwise store a null)</li>
+ * </ul>
+ * Rules only read the row, so one instance is shared by all validation threads.
+ */
+@Component
+public class RowValidator {
+
+    // Outward code, optional space, inward code; GIR 0AA is the one historical exception
+    private static final Pattern UK_POST_CODE = Pattern.compile(
+            "^(GIR ?0AA|[A-Z]{1,2}[0-9][A-Z0-9]? ?[0-9][A-Z]{2})$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * One check on one row; adds an error to the list for every violation found.
+     */
+    @FunctionalInterface
+    interface Rule {
+        void check(String sheetName, SheetRow row, List<ValidationError> errors);
+    }
+
+    private static final Set<String> TEXT_CONVERTERS = Set.of("string", "trim", "upper");
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<Integer, String> columnNames = new TreeMap<>(); // Column index -> database column
+
+    @Autowired
+    public RowValidator(SheetLayout layout,
+                        @Value("${importer.validation.mandatory-columns:B,D,F}") Set<String> mandatoryColumns,
+                        @Value("${importer.validation.dob-earliest:1900-01-01}") String dobEarliest) {
+        for (SheetLayout.ColumnMapping mapping : layout.getColumns()) {
+            Column column = columnOf(mapping.field());
+            columnNames.put(mapping.column(), column.name());
+            if (column.length() > 0 && TEXT_CONVERTERS.contains(mapping.converter().toLowerCase())) {
+                rules.add(maxLength(mapping.column(), column.length())); // Text columns only
+            }
+        }
+        for (String letter : mandatoryColumns) {
+            String trimmed = letter.trim().toUpperCase();
+            if (!trimmed.isEmpty()) {
+                rules.add(mandatory(CellReference.convertColStringToIndex(trimmed)));
+            }
+        }
+        int postCodeColumn = layout.columnOf("postCode");
+        if (postCodeColumn >= 0) {
+            rules.add(postCode(postCodeColumn));
+        }
+        int dateOfBirthColumn = layout.columnOf("dateOfBirth");
+        if (dateOfBirthColumn >= 0) {
+            rules.add(dateOfBirth(dateOfBirthColumn, LocalDate.parse(dobEarliest.trim())));
+        }
+    }
+
+    /**
+     * Applies every rule to the row.
+     *
+     * @param sheetName The sheet the row was read from, for the report.
+     * @param row       The parsed row.
+     * @param errors    Receives the violations; untouched if the row is valid.
+     */
+    public void validate(String sheetName, SheetRow row, List<ValidationError> errors) {
+        for (Rule rule : rules) {
+            rule.check(sheetName, row, errors);
+        }
+    }
+
+    private Rule maxLength(int column, int length) {
+        String message = "Longer than " + length + " characters";
+        return (sheetName, row, errors) -> {
+            String value = row.getValue(column);
+            if (value != null && value.length() > length) {
+                errors.add(error(sheetName, row, column, value, message));
+            }
+        };
+    }
+
+    private Rule mandatory(int column) {
+        return (sheetName, row, errors) -> {
+            String value = row.getValue(column);
+            if (value == null || value.isBlank()) {
+                errors.add(error(sheetName, row, column, null, "Required value is missing"));
+            }
+        };
+    }
+
+    private Rule postCode(int column) {
+        return (sheetName, row, errors) -> {
+            String value = row.getValue(column);
+            if (value != null && !value.isBlank() && !UK_POST_CODE.matcher(value.trim()).matches()) {
+                errors.add(error(sheetName, row, column, value, "Not a valid UK post code"));
+            }
+        };
+    }
+
+    private Rule dateOfBirth(int column, LocalDate earliest) {
+        return (sheetName, row, errors) -> {
+            String value = row.getValue(column);
+            LocalDate date = row.getDate(column);
+            if (date == null) {
+                if (value != null && !value.isBlank()) {
+                    errors.add(error(sheetName, row, column, value, "Not a date-formatted cell"));
+                }
+            } else if (date.isBefore(earliest) || date.isAfter(LocalDate.now())) {
+                errors.add(error(sheetName, row, column, date.toString(),
+                        "Outside " + earliest + " to today"));
+            }
+        };
+    }
+
+    private ValidationError error(String sheetName, SheetRow row, int column, String value, String message) {
+        return new ValidationError(sheetName, row.getRowIndex(), column,
+                columnNames.getOrDefault(column, CellReference.convertNumToColString(column)), value, message);
+    }
+
+    private static Column columnOf(String fieldName) {
+        try {
+            Column column = CaseMaster.class.getDeclaredField(fieldName).getAnnotation(Column.class);
+            if (column == null) {
+                throw new IllegalStateException("CaseMaster." + fieldName + " has no @Column annotation.");
+            }
+            return column;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("The sheet layout maps to unknown field CaseMaster." + fieldName, e);
+        }
+    }
+}
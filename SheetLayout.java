@@ -0,0 +1,184 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the data sits in an input sheet and which CaseMaster field each column feeds, as configured under
+ * {@code importer.layout} (see LayoutConfiguration):
+ * <pre>
+ *   importer.layout.submitted-ts-cell=D6
+ *   importer.layout.first-data-row=10
+ *   importer.layout.columns.B=thirdPartyReference1
+ *   importer.layout.columns.F=dateOfBirth:date
+ * </pre>
+ * Column values are {@code field} or {@code field:converter}; see CaseMasterRowMapper for the converters.
+ * Readers decode the columns from firstColumn to lastColumn, and a row that is blank in all of them ends the data.
+ * Immutable.
+ */
+public final class SheetLayout {
+
+    /**
+     * One mapped column.
+     *
+     * @param column    The 0-based column index (B is 1).
+     * @param field     The CaseMaster field it sets.
+     * @param converter The converter name, e.g. "string" or "date".
+     */
+    public record ColumnMapping(int column, String field, String converter) {
+
+        public String columnLetter() {
+            return CellReference.convertNumToColString(column);
+        }
+    }
+
+    /**
+     * The columns the importer was built for: B to G, with DATE_OF_BIRTH read as a date.
+     */
+    public static final Map<String, String> DEFAULT_COLUMNS = defaultColumns();
+
+    private final int submittedTsRow;
+    private final int submittedTsColumn;
+    private final int firstDataRow;
+    private final int firstColumn;
+    private final int lastColumn;
+    private final List<ColumnMapping> columns;
+
+    /**
+     * @param submittedTsCell The cell holding SUBMITTED_TS, e.g. "D6".
+     * @param firstDataRow    The 1-based sheet row of the first data row, e.g. 10.
+     * @param scanColumns     Columns checked for the end of data, e.g. "B:I"; blank means the span of the mapped columns.
+     * @param columns         Column letter to {@code field[:converter]}.
+     */
+    public SheetLayout(String submittedTsCell, int firstDataRow, String scanColumns, Map<String, String> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("importer.layout.columns must map at least one column.");
+        }
+        CellReference submittedTs = new CellReference(submittedTsCell.trim());
+        this.submittedTsRow = submittedTs.getRow();
+        this.submittedTsColumn = submittedTs.getCol();
+        this.firstDataRow = firstDataRow - 1;
+        if (this.firstDataRow <= submittedTsRow) {
+            throw new IllegalArgumentException("importer.layout.first-data-row must be below the SUBMITTED_TS cell.");
+        }
+
+        List<ColumnMapping> mappings = new ArrayList<>();
+        for (Map.Entry<String, String> entry : columns.entrySet()) {
+            String[] target = entry.getValue().split(":", 2);
+            mappings.add(new ColumnMapping(CellReference.convertColStringToIndex(entry.getKey().trim()),
+                    target[0].trim(), target.length > 1 ? target[1].trim() : "string"));
+        }
+        mappings.sort(Comparator.comparingInt(ColumnMapping::column));
+        this.columns = List.copyOf(mappings);
+
+        if (scanColumns != null && !scanColumns.isBlank()) {
+            String[] range = scanColumns.split(":", 2);
+            this.firstColumn = CellReference.convertColStringToIndex(range[0].trim());
+            this.lastColumn = CellReference.convertColStringToIndex((range.length > 1 ? range[1] : range[0]).trim());
+        } else {
+            this.firstColumn = this.columns.get(0).column();
+            this.lastColumn = this.columns.get(this.columns.size() - 1).column();
+        }
+        if (firstColumn > this.columns.get(0).column() || lastColumn < this.columns.get(this.columns.size() - 1).column()) {
+            throw new IllegalArgumentException("importer.layout.scan-columns must cover every mapped column.");
+        }
+    }
+
+    /**
+     * The layout the importer was built for: SUBMITTED_TS in D6, data from row 10, columns B to I.
+     */
+    public static SheetLayout defaults() {
+        return new SheetLayout("D6", 10, "B:I", DEFAULT_COLUMNS);
+    }
+
+    private static Map<String, String> defaultColumns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("B", "thirdPartyReference1");
+        columns.put("C", "thirdPartyReference2");
+        columns.put("D", "lastName");
+        columns.put("E", "firstName");
+        columns.put("F", "dateOfBirth:date");
+        columns.put("G", "postCode");
+        return Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * @return The 0-based row of the SUBMITTED_TS cell.
+     */
+    public int getSubmittedTsRow() {
+        return submittedTsRow;
+    }
+
+    /**
+     * @return The 0-based column of the SUBMITTED_TS cell.
+     */
+    public int getSubmittedTsColumn() {
+        return submittedTsColumn;
+    }
+
+    /**
+     * @return The SUBMITTED_TS cell as shown in Excel, e.g. D6.
+     */
+    public String getSubmittedTsCell() {
+        return new CellReference(submittedTsRow, submittedTsColumn).formatAsString();
+    }
+
+    /**
+     * @return The 0-based row of the first data row.
+     */
+    public int getFirstDataRow() {
+        return firstDataRow;
+    }
+
+    /**
+     * @return The first decoded column (inclusive, 0-based).
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * @return The last decoded column (inclusive, 0-based); SheetRow arrays are sized lastColumn + 1.
+     */
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * @return The mapped columns, in column order.
+     */
+    public List<ColumnMapping> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The column that feeds the given CaseMaster field, or -1 if it is not mapped.
+     */
+    public int columnOf(String field) {
+        for (ColumnMapping mapping : columns) {
+            if (mapping.field().equals(field)) {
+                return mapping.column();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SUBMITTED_TS " + getSubmittedTsCell() + ", data from row " + (firstDataRow + 1)
+                + ", columns " + CellReference.convertNumToColString(firstColumn) + ":" + CellReference.convertNumToColString(lastColumn));
+        for (ColumnMapping mapping : columns) {
+            sb.append(", ").append(mapping.columnLetter()).append('=').append(mapping.field());
+            if (!"string".equals(mapping.converter())) {
+                sb.append(':').append(mapping.converter());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ppi.utility.importer.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * One data row read from the decoded columns of a sheet (B to I in the built-in layout), before it is mapped to a CaseMaster.
+ * Readers produce SheetRows; CaseMasterRowMapper turns them into entities. Instances are
+ * immutable once handed out, so they can safely cross thread boundaries in the import pipeline.
+ */
+public final class SheetRow {
+
+    // Decoded columns of the built-in layout (SheetLayout.defaults); readers follow the configured layout
+    public static final int FIRST_COLUMN = 1; // Column B
+    public static final int LAST_COLUMN = 8;  // Column I
+
+    private final int rowIndex;
+    private final Timestamp submittedTs;
+    private final String[] values;   // Indexed by column; same text as RowDecoder.getString
+    private final LocalDate[] dates; // Indexed by column; set only for date-formatted numeric cells
+
+    public SheetRow(int rowIndex, Timestamp submittedTs, String[] values, LocalDate[] dates) {
+        this.rowIndex = rowIndex;
+        this.submittedTs = submittedTs;
+        this.values = values;
+        this.dates = dates;
+    }
+
+    /**
+     * @return The 0-based row index in the sheet (row 10 is index 9).
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * @return The SUBMITTED_TS read from the header cell (D6) of the same sheet.
+     */
+    public Timestamp getSubmittedTs() {
+        return submittedTs;
+    }
+
+    /**
+     * @param column The 0-based column index (B is 1).
+     * @return The cell text, or null if the cell is missing or blank.
+     */
+    public String getValue(int column) {
+        return values[column];
+    }
+
+    /**
+     * @param column The 0-based column index (B is 1).
+     * @return The cell date, or null unless the cell holds a date-formatted number.
+     */
+    public LocalDate getDate(int column) {
+        return dates[column];
+    }
+}
@@ -0,0 +1,391 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for .xlsx files built on POI's event API (XSSFReader + XSSFSheetXMLHandler).
+ * The sheet XML is parsed with SAX and shared strings are read through a read-only table,
+ * so only the row currently being parsed is held in memory regardless of the file size.
+ * Produces the same SheetRows as the workbook (DOM) path in ExcelService.
+ */
+@Component
+public class StreamingExcelReader {
+
+    private final ImportMetrics importMetrics;
+    private final SheetLayout layout; // Header cell, first data row and decoded columns
+
+    /**
+     * Reads the built-in layout (SheetLayout.defaults).
+     */
+    public StreamingExcelReader(ImportMetrics importMetrics) {
+        this(importMetrics, SheetLayout.defaults());
+    }
+
+    @Autowired
+    public StreamingExcelReader(ImportMetrics importMetrics, SheetLayout layout) {
+        this.importMetrics = importMetrics;
+        this.layout = layout;
+    }
+
+    /**
+     * Reads one sheet of the given .xlsx file and passes each data row to the consumer.
+     *
+     * @param excelFile   The .xlsx file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param rowConsumer Receives one SheetRow per data row, in sheet order.
+     * @return The number of data rows read.
+     * @throws IOException If the file cannot be opened or its XML cannot be parsed.
+     */
+    public int read(File excelFile, int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException {
+        long openStart = System.nanoTime();
+        try (OPCPackage pkg = OPCPackage.open(excelFile, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            StylesTable styles = xssfReader.getStylesTable();
+            boolean date1904 = isDate1904(xssfReader);
+
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+                sheets.next().close(); // Skip sheets before the requested one without parsing them
+            }
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Excel file does not contain sheet index " + sheetIndex + ".");
+            }
+
+            try (InputStream sheetStream = sheets.next()) {
+                importMetrics.recordFileOpen("streaming", System.nanoTime() - openStart);
+                DateDetectingFormatter formatter = new DateDetectingFormatter();
+                DataRowSheetHandler sheetHandler = new DataRowSheetHandler(layout, formatter, date1904, rowConsumer);
+
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new CellTypeTrackingHandler(styles, sharedStrings, sheetHandler, formatter));
+                try {
+                    parser.parse(new InputSource(sheetStream));
+                } catch (EndOfDataSignal e) {
+                    // First blank row reached; the remainder of the sheet is intentionally not parsed
+                }
+                sheetHandler.checkSubmittedTsRead();
+                return sheetHandler.rowCount;
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException | XmlException e) {
+            throw new IOException("Unable to stream .xlsx content: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the workbook's date system from {@code workbookPr/@date1904} in workbook.xml, as XSSFWorkbook.isDate1904
+     * does for the DOM path. Serial dates in a 1904 workbook count from 1904-01-01 and are 1,462 days smaller.
+     */
+    private static boolean isDate1904(XSSFReader xssfReader) throws IOException, OpenXML4JException, XmlException {
+        try (InputStream workbookData = xssfReader.getWorkbookData()) {
+            CTWorkbookPr workbookPr = WorkbookDocument.Factory
+                    .parse(workbookData, POIXMLTypeLoader.DEFAULT_XML_OPTIONS).getWorkbook().getWorkbookPr();
+            return workbookPr != null && workbookPr.getDate1904();
+        }
+    }
+
+    /**
+     * Estimates the data rows from a sheet's dimension: everything from the first data row to the last
+     * used row. Writers that do not track the used range write "A1", which yields no estimate.
+     */
+    private long expectedRows(String dimension) {
+        if (dimension == null || dimension.isEmpty()) {
+            return 0;
+        }
+        int colon = dimension.indexOf(':');
+        int lastRow = new CellReference(colon >= 0 ? dimension.substring(colon + 1) : dimension).getRow();
+        return lastRow + 1L - layout.getFirstDataRow();
+    }
+
+    /**
+     * Lists the sheet names of the given .xlsx file from the workbook part, without parsing any sheet data.
+     *
+     * @param excelFile The .xlsx file to inspect.
+     * @return The sheet names in workbook order.
+     * @throws IOException If the file cannot be opened.
+     */
+    public List<String> getSheetNames(File excelFile) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(excelFile, PackageAccess.READ)) {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> sheetNames = new ArrayList<>();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                sheetNames.add(sheets.getSheetName());
+            }
+            return sheetNames;
+        } catch (OpenXML4JException e) {
+            throw new IOException("Unable to read .xlsx sheet list: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * XSSFSheetXMLHandler that also passes the cell type ({@code t}), the presence of a formula ({@code <f>})
+     * and the raw {@code <v>} text of each cell to the DataRowSheetHandler. XSSFSheetXMLHandler reports
+     * booleans as TRUE/FALSE, and numeric-looking formula strings as numbers, so the rendered text alone
+     * cannot tell which text the DOM path (RowDecoder.getString) would produce for the same cell.
+     * Also reports the sheet's dimension to the job's progress.
+     */
+    private final class CellTypeTrackingHandler extends XSSFSheetXMLHandler {
+        private final DataRowSheetHandler sheetHandler;
+        private boolean inValue;
+
+        CellTypeTrackingHandler(StylesTable styles, ReadOnlySharedStringsTable sharedStrings,
+                                DataRowSheetHandler sheetHandler, DataFormatter formatter) {
+            super(styles, null, sharedStrings, sheetHandler, formatter, false);
+            this.sheetHandler = sheetHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "c" -> sheetHandler.startCell(attributes.getValue("t"));
+                case "f" -> sheetHandler.formula = true;
+                case "v" -> inValue = true;
+                case "dimension" -> // Used range, e.g. A1:I200010; the handler itself ignores it
+                        ImportJob.currentProgress().expectRows(expectedRows(attributes.getValue("ref")));
+                default -> {
+                }
+            }
+            super.startElement(uri, localName, qName, attributes);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (inValue) {
+                sheetHandler.rawText.append(ch, start, length);
+            }
+            super.characters(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if ("v".equals(localName)) {
+                inValue = false;
+            }
+            super.endElement(uri, localName, qName);
+        }
+    }
+
+    /**
+     * Thrown from the sheet handler to stop SAX parsing once the end of the data block is reached.
+     * SheetContentsHandler callbacks cannot throw checked exceptions, hence a RuntimeException.
+     */
+    private static final class EndOfDataSignal extends RuntimeException {
+        EndOfDataSignal() {
+            super("End of data rows reached", null, false, false); // No stack trace needed
+        }
+    }
+
+    /**
+     * DataFormatter that remembers whether the last formatted cell had a date format. The cell's value
+     * itself is taken from its raw {@code <v>} text (see CellTypeTrackingHandler), so dates (D6 and
+     * DATE_OF_BIRTH) are converted from the Excel serial value exactly as the DOM path reads them.
+     */
+    private static final class DateDetectingFormatter extends DataFormatter {
+        private boolean dateFormatted;
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            dateFormatted = DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value);
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+
+        void reset() {
+            dateFormatted = false;
+        }
+    }
+
+    /**
+     * Collects the layout's columns of the current row and emits each completed data row as a SheetRow.
+     */
+    private static final class DataRowSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final DateDetectingFormatter formatter;
+        private final boolean date1904;
+        private final Consumer<SheetRow> rowConsumer;
+        private final SheetLayout layout;
+        private final int submittedTsRow;
+        private final int submittedTsCol;
+        private final int firstDataRow;
+        private final int firstDataCol;
+        private final int lastDataCol;
+
+        // Per-row buffers indexed by column, reused for every row; also hold the SUBMITTED_TS column
+        private final String[] values;
+        private final double[] rawValues;
+        private final boolean[] dates;
+
+        // The cell being parsed, set by CellTypeTrackingHandler before cell() is called
+        private String cellType;
+        private boolean formula;
+        private final StringBuilder rawText = new StringBuilder();
+
+        private Timestamp submittedTs;
+        private boolean submittedTsRowSeen;
+        private int expectedRow;
+        private int rowCount;
+
+        DataRowSheetHandler(SheetLayout layout, DateDetectingFormatter formatter, boolean date1904,
+                            Consumer<SheetRow> rowConsumer) {
+            this.formatter = formatter;
+            this.date1904 = date1904;
+            this.rowConsumer = rowConsumer;
+            this.layout = layout;
+            this.submittedTsRow = layout.getSubmittedTsRow();
+            this.submittedTsCol = layout.getSubmittedTsColumn();
+            this.firstDataRow = layout.getFirstDataRow();
+            this.firstDataCol = layout.getFirstColumn();
+            this.lastDataCol = layout.getLastColumn();
+            int width = Math.max(lastDataCol, submittedTsCol) + 1;
+            this.values = new String[width];
+            this.rawValues = new double[width];
+            this.dates = new boolean[width];
+            this.expectedRow = firstDataRow;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            if (rowNum > submittedTsRow) {
+                checkSubmittedTsRead();
+            }
+            if (rowNum >= firstDataRow && rowNum != expectedRow) {
+                // A missing row in the XML is a null row in the DOM path, which ends the data block
+                throw new EndOfDataSignal();
+            }
+            Arrays.fill(values, null);
+            Arrays.fill(dates, false);
+            formatter.reset();
+        }
+
+        void startCell(String type) {
+            cellType = type;
+            formula = false;
+            rawText.setLength(0);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = new CellReference(cellReference).getCol();
+            boolean wasDate = formatter.dateFormatted;
+            formatter.reset();
+
+            if (col >= values.length) {
+                return;
+            }
+            values[col] = null;
+            dates[col] = false;
+            // Render exactly as RowDecoder.getString does for the cell type the DOM path would see
+            if (cellType == null || cellType.equals("n")) {
+                if (rawText.isEmpty()) {
+                    return; // No cached value
+                }
+                double value = Double.parseDouble(rawText.toString());
+                rawValues[col] = value;
+                if (formula) {
+                    values[col] = String.valueOf(value); // FORMULA_NUMBER; never a date, as in the DOM path
+                } else if (wasDate) {
+                    values[col] = DateUtil.getJavaDate(value, date1904).toString(); // DATE
+                    dates[col] = true;
+                } else {
+                    values[col] = String.valueOf((long) value); // NUMBER; avoids scientific notation for references
+                }
+            } else if (cellType.equals("b")) {
+                values[col] = String.valueOf(rawText.toString().equals("1")); // BOOLEAN, "true"/"false"
+            } else if (cellType.equals("e")) {
+                values[col] = formula ? "ERROR" : null; // FORMULA_ERROR; plain error cells read as empty
+            } else if (cellType.equals("str")) {
+                values[col] = rawText.toString(); // Formula string result, as cached (not reformatted)
+            } else {
+                values[col] = formattedValue; // Shared or inline string
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == submittedTsRow) {
+                submittedTsRowSeen = true;
+                if (!dates[submittedTsCol]) {
+                    throw new IllegalArgumentException("Cell " + layout.getSubmittedTsCell() + " must contain a valid date/time value.");
+                }
+                submittedTs = new Timestamp(DateUtil.getJavaDate(rawValues[submittedTsCol], date1904).getTime());
+                return;
+            }
+            if (rowNum < firstDataRow) {
+                return;
+            }
+            if (isRowEmpty()) {
+                throw new EndOfDataSignal();
+            }
+
+            // Snapshot the reusable buffers into an immutable row
+            String[] rowValues = new String[lastDataCol + 1];
+            LocalDate[] rowDates = new LocalDate[lastDataCol + 1];
+            for (int col = firstDataCol; col <= lastDataCol; col++) {
+                rowValues[col] = values[col];
+                if (dates[col]) {
+                    Date date = DateUtil.getJavaDate(rawValues[col], date1904);
+                    rowDates[col] = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+                }
+            }
+
+            rowConsumer.accept(new SheetRow(rowNum, submittedTs, rowValues, rowDates));
+            rowCount++;
+            expectedRow = rowNum + 1;
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // Headers and footers are not part of the import
+        }
+
+        private boolean isRowEmpty() {
+            for (int i = firstDataCol; i <= lastDataCol; i++) {
+                if (!RowDecoder.isBlank(values[i])) {
+                    return false; // Found non-empty cell
+                }
+            }
+            return true; // All cells in range are empty
+        }
+
+        void checkSubmittedTsRead() {
+            if (!submittedTsRowSeen) {
+                throw new IllegalArgumentException("Excel file is empty or does not have data in row "
+                        + (submittedTsRow + 1) + " (" + layout.getSubmittedTsCell() + ").");
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ppi.utility.importer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingExcelReaderTest {
+
+    private static final LocalDateTime SUBMITTED = LocalDateTime.of(2024, 1, 15, 10, 30);
+    private static final LocalDate DOB = LocalDate.of(1980, 5, 17);
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void readsDatesInTheWorkbooksDateSystem(boolean date1904) throws IOException {
+        Path file = dir.resolve("cases.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Must be set before any date is written; setCellValue converts with the workbook's date system
+            workbook.getCTWorkbook().getWorkbookPr().setDate1904(date1904);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(5).createCell(3).setCellValue(SUBMITTED);
+            sheet.getRow(5).getCell(3).setCellStyle(dateStyle);
+            Row row = sheet.createRow(9);
+            row.createCell(1).setCellValue("REF1");
+            row.createCell(3).setCellValue("Smith");
+            row.createCell(5).setCellValue(DOB);
+            row.getCell(5).setCellStyle(dateStyle);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+
+        List<SheetRow> rows = new ArrayList<>();
+        new StreamingExcelReader(new ImportMetrics(new SimpleMeterRegistry())).read(file.toFile(), 0, rows::add);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getSubmittedTs()).isEqualTo(Timestamp.valueOf(SUBMITTED));
+        assertThat(rows.get(0).getDate(5)).isEqualTo(DOB);
+        assertThat(rows.get(0).getValue(5)).isEqualTo(new Date(Timestamp.valueOf(DOB.atStartOfDay()).getTime()).toString());
+    }
+}
@@ -0,0 +1,341 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for legacy .xls (BIFF8) files built on POI's record-level event API (HSSFEventFactory).
+ * The Workbook stream is read record by record and only the row currently being assembled is held in
+ * memory, instead of the full HSSFWorkbook object model that WorkbookFactory builds. The shared string
+ * table is the only workbook-wide structure kept, as the cells refer to it by index.
+ * Produces the same SheetRows as the workbook (DOM) path in ExcelService.
+ */
+@Component
+public class StreamingXlsReader {
+
+    private static final short ABORT = 1; // Any non-zero result stops HSSFEventFactory
+
+    private final ImportMetrics importMetrics;
+    private final SheetLayout layout; // Header cell, first data row and decoded columns
+
+    /**
+     * Reads the built-in layout (SheetLayout.defaults).
+     */
+    public StreamingXlsReader(ImportMetrics importMetrics) {
+        this(importMetrics, SheetLayout.defaults());
+    }
+
+    @Autowired
+    public StreamingXlsReader(ImportMetrics importMetrics, SheetLayout layout) {
+        this.importMetrics = importMetrics;
+        this.layout = layout;
+    }
+
+    /**
+     * @return True for the legacy binary format (.xls) this reader handles.
+     */
+    public static boolean isXls(File file) {
+        return file.getName().toLowerCase().endsWith(".xls");
+    }
+
+    /**
+     * Reads one sheet of the given .xls file and passes each data row to the consumer.
+     *
+     * @param excelFile   The .xls file to read.
+     * @param sheetIndex  The 0-based index of the sheet to read.
+     * @param rowConsumer Receives one SheetRow per data row, in sheet order.
+     * @return The number of data rows read.
+     * @throws IOException If the file cannot be opened or is not a BIFF8 workbook.
+     */
+    public int read(File excelFile, int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException {
+        long openStart = System.nanoTime();
+        try (POIFSFileSystem fs = new POIFSFileSystem(excelFile, true)) {
+            importMetrics.recordFileOpen("hssf-event", System.nanoTime() - openStart);
+            DataRowListener listener = new DataRowListener(sheetIndex, rowConsumer);
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+
+            if (!listener.sheetFound) {
+                throw new IllegalArgumentException("Excel file does not contain sheet index " + sheetIndex + ".");
+            }
+            listener.checkSubmittedTsRead();
+            return listener.rowCount;
+        } catch (HSSFUserException e) {
+            throw new IOException("Unable to stream .xls content: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lists the sheet names of the given .xls file from the workbook globals, without reading any sheet data.
+     *
+     * @param excelFile The .xls file to inspect.
+     * @return The sheet names in workbook order.
+     * @throws IOException If the file cannot be opened.
+     */
+    public List<String> getSheetNames(File excelFile) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(excelFile, true)) {
+            List<BoundSheetRecord> boundSheets = new ArrayList<>();
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(new AbortableHSSFListener() {
+                @Override
+                public short abortableProcessRecord(Record record) {
+                    if (record instanceof BoundSheetRecord boundSheet) {
+                        boundSheets.add(boundSheet);
+                    } else if (record instanceof EOFRecord) {
+                        return ABORT; // End of the workbook globals; sheet data follows
+                    }
+                    return 0;
+                }
+            });
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+
+            List<String> sheetNames = new ArrayList<>();
+            for (BoundSheetRecord boundSheet : BoundSheetRecord.orderByBofPosition(boundSheets)) {
+                sheetNames.add(boundSheet.getSheetname());
+            }
+            return sheetNames;
+        } catch (HSSFUserException e) {
+            throw new IOException("Unable to read .xls sheet list: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tracks the substream of the requested sheet and assembles its rows from the cell records.
+     * BIFF8 stores cells in row order, so a row is complete when a cell of a later row (or the sheet's
+     * EOF) arrives. Cell text mirrors RowDecoder.getString for each record type.
+     */
+    private final class DataRowListener extends AbortableHSSFListener {
+        private final int targetSheet;
+        private final Consumer<SheetRow> rowConsumer;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(record -> { });
+        private final int submittedTsRow = layout.getSubmittedTsRow();
+        private final int submittedTsCol = layout.getSubmittedTsColumn();
+        private final int firstDataRow = layout.getFirstDataRow();
+        private final int firstDataCol = layout.getFirstColumn();
+        private final int lastDataCol = layout.getLastColumn();
+
+        // Per-row buffers indexed by column, reused for every row; also hold the SUBMITTED_TS column
+        private final String[] values;
+        private final double[] rawValues;
+        private final boolean[] dates;
+
+        private SSTRecord sharedStrings;
+        private boolean date1904;    // Workbook globals: serial dates count from 1904-01-01, as HSSFWorkbook.isDate1904
+        private int depth;           // BOF/EOF nesting; embedded charts open substreams inside a sheet
+        private int sheetCounter = -1;
+        private boolean inTargetSheet;
+        private boolean sheetFound;
+        private int currentRow = -1; // Row being assembled, or -1 before the first cell
+        private int pendingFormulaCol = -1; // Column of a formula whose string result follows in a StringRecord
+        private int expectedRow;
+
+        private Timestamp submittedTs;
+        private boolean submittedTsRowSeen;
+        private int rowCount;
+
+        DataRowListener(int targetSheet, Consumer<SheetRow> rowConsumer) {
+            this.targetSheet = targetSheet;
+            this.rowConsumer = rowConsumer;
+            int width = Math.max(lastDataCol, submittedTsCol) + 1;
+            this.values = new String[width];
+            this.rawValues = new double[width];
+            this.dates = new boolean[width];
+            this.expectedRow = firstDataRow;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formats.processRecordInternally(record); // Number formats and cell styles, for date detection
+
+            if (record instanceof BOFRecord bof) {
+                if (depth++ == 0 && bof.getType() != BOFRecord.TYPE_WORKBOOK) {
+                    inTargetSheet = ++sheetCounter == targetSheet;
+                    sheetFound |= inTargetSheet;
+                }
+                return 0;
+            }
+            if (record instanceof EOFRecord) {
+                if (--depth == 0 && inTargetSheet) {
+                    endRow();
+                    return ABORT; // Sheets after the requested one are not read
+                }
+                return 0;
+            }
+            if (record instanceof SSTRecord sst) {
+                sharedStrings = sst; // Workbook globals, before any sheet
+                return 0;
+            }
+            if (record instanceof DateWindow1904Record dateWindow) {
+                date1904 = dateWindow.getWindowing() == 1; // Also in the globals
+                return 0;
+            }
+            if (!inTargetSheet || depth != 1) {
+                return 0;
+            }
+            if (record instanceof DimensionsRecord dimensions) {
+                // Used range of the sheet; getLastRow is one past the last used row
+                ImportJob.currentProgress().expectRows(dimensions.getLastRow() - firstDataRow);
+                return 0;
+            }
+
+            if (record instanceof StringRecord string) {
+                if (pendingFormulaCol >= 0) {
+                    values[pendingFormulaCol] = string.getString();
+                    pendingFormulaCol = -1;
+                }
+                return 0;
+            }
+            if (record instanceof CellValueRecordInterface cell) {
+                pendingFormulaCol = -1;
+                if (cell.getRow() != currentRow && !startRow(cell.getRow())) {
+                    return ABORT; // First blank or missing row reached
+                }
+                if (cell.getColumn() < values.length) {
+                    readCell(record, cell);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Completes the current row and starts the given one.
+         *
+         * @return False once the end of data is reached.
+         */
+        private boolean startRow(int rowNum) {
+            if (!endRow()) {
+                return false;
+            }
+            if (rowNum > submittedTsRow) {
+                checkSubmittedTsRead();
+            }
+            if (rowNum >= firstDataRow && rowNum != expectedRow) {
+                // A row without cells is a null or empty row in the DOM path, which ends the data block
+                return false;
+            }
+            currentRow = rowNum;
+            Arrays.fill(values, null);
+            Arrays.fill(dates, false);
+            return true;
+        }
+
+        private void readCell(Record record, CellValueRecordInterface cell) {
+            int col = cell.getColumn();
+            if (record instanceof LabelSSTRecord label) {
+                values[col] = sharedStrings.getString(label.getSSTIndex()).getString();
+            } else if (record instanceof LabelRecord label) {
+                values[col] = label.getValue();
+            } else if (record instanceof NumberRecord number) {
+                double value = number.getValue();
+                rawValues[col] = value;
+                dates[col] = DateUtil.isADateFormat(formats.getFormatIndex(cell), formats.getFormatString(cell))
+                        && DateUtil.isValidExcelDate(value);
+                values[col] = dates[col] ? DateUtil.getJavaDate(value, date1904).toString() : String.valueOf((long) value);
+            } else if (record instanceof BoolErrRecord boolErr) {
+                values[col] = boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : null; // Error cells read as empty
+            } else if (record instanceof FormulaRecord formula) {
+                switch (formula.getCachedResultTypeEnum()) {
+                    case STRING -> pendingFormulaCol = col; // The text is in the StringRecord that follows
+                    case NUMERIC -> values[col] = String.valueOf(formula.getValue());
+                    case BOOLEAN -> values[col] = String.valueOf(formula.getCachedBooleanValue());
+                    case ERROR -> values[col] = "ERROR";
+                    default -> {
+                        // An empty cached result leaves the column empty
+                    }
+                }
+            }
+            // BlankRecord and other cell records leave the column empty
+        }
+
+        /**
+         * Emits the row being assembled, if any.
+         *
+         * @return False if the row is blank, which ends the data block.
+         */
+        private boolean endRow() {
+            int rowNum = currentRow;
+            if (rowNum < 0) {
+                return true;
+            }
+            currentRow = -1;
+            if (rowNum == submittedTsRow) {
+                submittedTsRowSeen = true;
+                if (!dates[submittedTsCol]) {
+                    throw new IllegalArgumentException("Cell " + layout.getSubmittedTsCell() + " must contain a valid date/time value.");
+                }
+                submittedTs = new Timestamp(DateUtil.getJavaDate(rawValues[submittedTsCol], date1904).getTime());
+                return true;
+            }
+            if (rowNum < firstDataRow) {
+                return true;
+            }
+            if (isRowEmpty()) {
+                return false;
+            }
+
+            // Snapshot the reusable buffers into an immutable row
+            String[] rowValues = new String[lastDataCol + 1];
+            LocalDate[] rowDates = new LocalDate[lastDataCol + 1];
+            for (int col = firstDataCol; col <= lastDataCol; col++) {
+                rowValues[col] = values[col];
+                if (dates[col]) {
+                    rowDates[col] = DateUtil.getJavaDate(rawValues[col], date1904).toInstant()
+                            .atZone(ZoneId.systemDefault()).toLocalDate();
+                }
+            }
+
+            rowConsumer.accept(new SheetRow(rowNum, submittedTs, rowValues, rowDates));
+            rowCount++;
+            expectedRow = rowNum + 1;
+            return true;
+        }
+
+        private boolean isRowEmpty() {
+            for (int i = firstDataCol; i <= lastDataCol; i++) {
+                if (!RowDecoder.isBlank(values[i])) {
+                    return false; // Found non-empty cell
+                }
+            }
+            return true; // All cells in range are empty
+        }
+
+        void checkSubmittedTsRead() {
+            if (!submittedTsRowSeen) {
+                throw new IllegalArgumentException("Excel file is empty or does not have data in row "
+                        + (submittedTsRow + 1) + " (" + layout.getSubmittedTsCell() + ").");
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ppi.utility.importer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingXlsReaderTest {
+
+    private static final LocalDateTime SUBMITTED = LocalDateTime.of(2024, 1, 15, 10, 30);
+    private static final LocalDate DOB = LocalDate.of(1980, 5, 17);
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void readsDatesInTheWorkbooksDateSystem(boolean date1904) throws IOException {
+        Path file = dir.resolve("cases.xls");
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            // HSSFWorkbook keeps its date system from creation, so the serial dates are written as numbers below
+            DateWindow1904Record dateWindow = (DateWindow1904Record) workbook.getInternalWorkbook()
+                    .findFirstRecordBySid(DateWindow1904Record.sid);
+            dateWindow.setWindowing((short) (date1904 ? 1 : 0));
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(5).createCell(3).setCellValue(DateUtil.getExcelDate(SUBMITTED, date1904));
+            sheet.getRow(5).getCell(3).setCellStyle(dateStyle);
+            Row row = sheet.createRow(9);
+            row.createCell(1).setCellValue("REF1");
+            row.createCell(3).setCellValue("Smith");
+            row.createCell(5).setCellValue(DateUtil.getExcelDate(DOB.atStartOfDay(), date1904));
+            row.getCell(5).setCellStyle(dateStyle);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+
+        List<SheetRow> rows = new ArrayList<>();
+        new StreamingXlsReader(new ImportMetrics(new SimpleMeterRegistry())).read(file.toFile(), 0, rows::add);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getSubmittedTs()).isEqualTo(Timestamp.valueOf(SUBMITTED));
+        assertThat(rows.get(0).getDate(5)).isEqualTo(DOB);
+        assertThat(rows.get(0).getValue(5)).isEqualTo(new Date(Timestamp.valueOf(DOB.atStartOfDay()).getTime()).toString());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * One rule violation found by RowValidator.
+ *
+ * @param sheetName The sheet the row was read from.
+ * @param rowIndex  The 0-based sheet row (row 10 is index 9).
+ * @param column    The 0-based column index (B is 1).
+ * @param field     The database column the cell maps to, e.g. POST_CODE.
+ * @param value     The offending cell text, or null for a missing value.
+ * @param message   What is wrong, e.g. "Longer than 35 characters".
+ */
+public record ValidationError(String sheetName, int rowIndex, int column, String field, String value, String message) {
+
+    /**
+     * @return The cell reference as shown in Excel, e.g. G12.
+     */
+    public String cellReference() {
+        return new CellReference(rowIndex, column).formatAsString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ppi.utility.importer.service;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of validating one input file.
+ *
+ * @param file        The validated file.
+ * @param rowsChecked Data rows checked across all sheets.
+ * @param errorCount  Violations found; may exceed errors.size() when capped by {@code importer.validation.max-errors}.
+ * @param errors      The violations kept for the report, in sheet and row order.
+ * @param reportFile  The error report written next to the input, or null when the file is valid.
+ * @param elapsedMs   Wall-clock time of the validation.
+ */
+public record ValidationReport(File file, int rowsChecked, int errorCount, List<ValidationError> errors,
+                               Path reportFile, long elapsedMs) {
+
+    public boolean valid() {
+        return errorCount == 0;
+    }
+
+    /**
+     * One-line summary suitable for the UI status label.
+     */
+    public String summary() {
+        if (valid()) {
+            return file.getName() + ": " + rowsChecked + " rows valid (" + elapsedMs + " ms).";
+        }
+        return file.getName() + ": " + errorCount + " validation error(s) in " + rowsChecked + " rows, see "
+                + (reportFile != null ? reportFile.getFileName() : "the log") + ".";
+    }
+}
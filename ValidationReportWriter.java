@@ -0,0 +1,125 @@
+package com.ppi.utility.importer.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes validation errors next to the input file, as {@code <name>.errors.xlsx} or {@code <name>.errors.csv}
+ * depending on {@code importer.validation.report-format}. One line per error: sheet, cell, column, value, message.
+ */
+@Component
+public class ValidationReportWriter {
+
+    private static final String[] HEADERS = {"Sheet", "Cell", "Column", "Value", "Error"};
+
+    private final boolean csv;
+
+    @Autowired
+    public ValidationReportWriter(@Value("${importer.validation.report-format:xlsx}") String format) {
+        this.csv = "csv".equalsIgnoreCase(format.trim());
+    }
+
+    /**
+     * @param input The validated file; the report is written to the same directory.
+     * @return The path the report for this input is written to.
+     */
+    public Path reportPath(File input) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        return input.toPath().toAbsolutePath().resolveSibling(baseName + ".errors." + (csv ? "csv" : "xlsx"));
+    }
+
+    /**
+     * Writes the report, replacing an earlier one. With no errors, an earlier report is removed instead.
+     *
+     * @return The report path, or null if there was nothing to report.
+     */
+    public Path write(File input, List<ValidationError> errors) throws IOException {
+        Path report = reportPath(input);
+        if (errors.isEmpty()) {
+            Files.deleteIfExists(report); // A stale report would contradict the now valid file
+            return null;
+        }
+        if (csv) {
+            writeCsv(report, errors);
+        } else {
+            writeXlsx(report, errors);
+        }
+        return report;
+    }
+
+    private void writeCsv(Path report, List<ValidationError> errors) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", HEADERS));
+            writer.newLine();
+            for (ValidationError error : errors) {
+                writer.write(csvField(error.sheetName()) + "," + error.cellReference() + "," + csvField(error.field()) + ","
+                        + csvField(error.value()) + "," + csvField(error.message()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeXlsx(Path report, List<ValidationError> errors) throws IOException {
+        // Streaming workbook: only a window of rows is kept in memory however many errors there are
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+             OutputStream out = Files.newOutputStream(report)) {
+            Sheet sheet = workbook.createSheet("Errors");
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            int[] widths = {20, 8, 26, 40, 40}; // In characters
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, widths[i] * 256);
+            }
+            sheet.createFreezePane(0, 1);
+
+            int rowNum = 1;
+            for (ValidationError error : errors) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(error.sheetName());
+                row.createCell(1).setCellValue(error.cellReference());
+                row.createCell(2).setCellValue(error.field());
+                row.createCell(3).setCellValue(error.value() != null ? error.value() : "");
+                row.createCell(4).setCellValue(error.message());
+            }
+            workbook.write(out);
+            workbook.dispose(); // Delete the temporary files backing the streamed rows
+        }
+    }
+}
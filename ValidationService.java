@@ -0,0 +1,226 @@
+package com.ppi.utility.importer.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Service class responsible for validating input files before anything is written to the database.
+ * <p>
+ * Each sheet is parsed once on the calling thread; the parsed rows are cut into chunks of
+ * {@code importer.validation.chunk-size} and the RowValidator rules are evaluated on a pool of
+ * {@code importer.validation.parallelism} threads. At most two chunks per thread are queued, so a
+ * large file is validated in bounded memory. Violations are collected in sheet and row order and
+ * written to an error report next to the input by ValidationReportWriter.
+ * <p>
+ * The validator threads share one ErrorBudget: at most {@code importer.validation.max-errors} violations
+ * are kept, and the rest are only counted, so a file where every row fails holds no more than the cap.
+ */
+@Service
+public class ValidationService {
+
+    private final RowValidator rowValidator;
+    private final ValidationReportWriter reportWriter;
+    private final SheetLayout layout;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int parallelism;
+    private final ExecutorService validatorExecutor;
+
+    /**
+     * Reads the rows of one sheet, e.g. through ExcelService.validateFile.
+     */
+    @FunctionalInterface
+    public interface SheetReader {
+        void read(int sheetIndex, Consumer<SheetRow> rowConsumer) throws IOException;
+    }
+
+    @Autowired
+    public ValidationService(RowValidator rowValidator,
+                             ValidationReportWriter reportWriter,
+                             SheetLayout layout,
+                             @Value("${importer.validation.chunk-size:2000}") int chunkSize,
+                             @Value("${importer.validation.max-errors:10000}") int maxErrors,
+                             @Value("${importer.validation.parallelism:0}") int parallelism) {
+        this.rowValidator = rowValidator;
+        this.reportWriter = reportWriter;
+        this.layout = layout;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxErrors = Math.max(1, maxErrors);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.validatorExecutor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "import-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Validates every listed sheet of a file and writes the error report.
+     *
+     * @param file       The input file; the report is written next to it.
+     * @param sheetNames The sheets to validate, in workbook order (the list index is the sheet index).
+     * @param reader     Reads the rows of one sheet.
+     * @return The violations found, and where the report was written.
+     * @throws IOException If the file or the report could not be read or written.
+     */
+    public ValidationReport validate(File file, List<String> sheetNames, SheetReader reader) throws IOException {
+        long start = System.nanoTime();
+        List<ValidationError> errors = new ArrayList<>();
+        ErrorBudget budget = new ErrorBudget();
+        int rowsChecked = 0;
+
+        for (int sheetIndex = 0; sheetIndex < sheetNames.size(); sheetIndex++) {
+            String sheetName = sheetNames.get(sheetIndex);
+            SheetValidation validation = new SheetValidation(sheetName, budget);
+            try {
+                reader.read(sheetIndex, validation);
+                validation.flush();
+            } catch (IllegalArgumentException e) {
+                // Header problems such as a missing SUBMITTED_TS date stop the reader; report them like any other error
+                validation.headerError(e.getMessage());
+            }
+            for (List<ValidationError> chunkErrors : validation.awaitAll()) {
+                errors.addAll(chunkErrors); // Kept errors only; never more than maxErrors in all
+            }
+            rowsChecked += validation.rows;
+        }
+
+        Path reportFile = reportWriter.write(file, errors);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        ValidationReport report = new ValidationReport(file, rowsChecked, budget.found.get(), errors, reportFile, elapsedMs);
+        System.out.println("[" + file.getName() + "] Validation: " + report.summary());
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validatorExecutor.shutdownNow();
+    }
+
+    /**
+     * Error counts shared by the chunk tasks of one validate call. A task only keeps an error after taking
+     * one of the maxErrors slots, so memory stays bounded while the sheets are still being read. Once the
+     * slots are gone, errors are counted and dropped; chunks validated side by side race for the last slots,
+     * so the kept errors are then not always the very first ones of the file.
+     */
+    private final class ErrorBudget {
+        private final AtomicInteger found = new AtomicInteger();
+        private final AtomicInteger kept = new AtomicInteger();
+
+        /**
+         * Counts one error.
+         *
+         * @return true if the error should be kept, false once maxErrors errors are kept.
+         */
+        boolean count() {
+            found.incrementAndGet();
+            return kept.get() < maxErrors && kept.getAndUpdate(n -> n < maxErrors ? n + 1 : n) < maxErrors;
+        }
+    }
+
+    /**
+     * Chunks the rows of one sheet and submits them to the validator pool.
+     */
+    private final class SheetValidation implements Consumer<SheetRow> {
+        private final String sheetName;
+        private final ErrorBudget budget;
+        private final Semaphore inFlight = new Semaphore(parallelism * 2);
+        private final List<Future<List<ValidationError>>> results = new ArrayList<>();
+        private List<ValidationError> headerErrors = List.of();
+        private List<SheetRow> buffer = new ArrayList<>(chunkSize);
+        private int rows;
+
+        SheetValidation(String sheetName, ErrorBudget budget) {
+            this.sheetName = sheetName;
+            this.budget = budget;
+        }
+
+        @Override
+        public void accept(SheetRow row) {
+            buffer.add(row);
+            rows++;
+            if (buffer.size() >= chunkSize) {
+                submit();
+            }
+        }
+
+        void flush() {
+            if (!buffer.isEmpty()) {
+                submit();
+            }
+        }
+
+        void headerError(String message) {
+            flush(); // Rows read before the failure are still checked
+            if (budget.count()) {
+                headerErrors = List.of(new ValidationError(sheetName, layout.getSubmittedTsRow(),
+                        layout.getSubmittedTsColumn(), "SUBMITTED_TS", null, message));
+            }
+        }
+
+        private void submit() {
+            ImportJob.checkCancelled();
+            List<SheetRow> chunk = buffer;
+            buffer = new ArrayList<>(chunkSize);
+            try {
+                inFlight.acquire(); // Parsing waits when the validators fall behind
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while validating " + sheetName + ".", e);
+            }
+            results.add(validatorExecutor.submit(() -> {
+                try {
+                    List<ValidationError> kept = new ArrayList<>();
+                    List<ValidationError> rowErrors = new ArrayList<>();
+                    for (SheetRow row : chunk) {
+                        rowValidator.validate(sheetName, row, rowErrors);
+                        for (ValidationError error : rowErrors) {
+                            if (budget.count()) {
+                                kept.add(error);
+                            }
+                        }
+                        rowErrors.clear();
+                    }
+                    return kept;
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+
+        /**
+         * @return The kept errors of each chunk, in row order.
+         */
+        List<List<ValidationError>> awaitAll() {
+            List<List<ValidationError>> all = new ArrayList<>();
+            all.add(headerErrors);
+            for (Future<List<ValidationError>> result : results) {
+                try {
+                    all.add(result.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while validating " + sheetName + ".", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Validation of " + sheetName + " failed: " + e.getCause().getMessage(),
+                            e.getCause());
+                }
+            }
+            return all;
+        }
+    }
+}
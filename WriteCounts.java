@@ -0,0 +1,34 @@
+package com.ppi.utility.importer.service;
+
+/**
+ * Outcome of writing rows to CASE_MASTER_TBL. Plain inserts only ever report inserted rows;
+ * the merge mode also reports updated and skipped (duplicate) rows.
+ *
+ * @param inserted New rows.
+ * @param updated  Existing rows whose data was replaced.
+ * @param skipped  Rows that were not written because an identical case already exists.
+ */
+public record WriteCounts(int inserted, int updated, int skipped) {
+
+    public static final WriteCounts NONE = new WriteCounts(0, 0, 0);
+
+    public static WriteCounts inserted(int rows) {
+        return new WriteCounts(rows, 0, 0);
+    }
+
+    /**
+     * @return Every row handed to the writer, whatever happened to it.
+     */
+    public int total() {
+        return inserted + updated + skipped;
+    }
+
+    public WriteCounts plus(WriteCounts other) {
+        return new WriteCounts(inserted + other.inserted, updated + other.updated, skipped + other.skipped);
+    }
+
+    @Override
+    public String toString() {
+        return inserted + " inserted, " + updated + " updated, " + skipped + " skipped";
+    }
+}
@@ -0,0 +1,211 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.service.CaseMasterRowMapper;
+import com.ppi.utility.importer.service.CellConversionContext;
+import com.ppi.utility.importer.service.RowDecoder;
+import com.ppi.utility.importer.service.SheetRow;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-cell and per-row conversion costs on an in-memory sheet.
+ * <p>
+ * The {@code legacy*} benchmarks reproduce the original ExcelService helpers (a new FormulaEvaluator
+ * per formula cell, isRowEmpty converting every cell to a String, then converting again for the
+ * mapping) so that the current RowDecoder / CellConversionContext path can be compared against them.
+ * Run the formula-dense case with {@code -p formulas=true -prof gc} to see the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class CellConversionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean formulas;
+
+    @Param({"true"})
+    public boolean dates;
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+    private final CaseMasterRowMapper rowMapper = new CaseMasterRowMapper();
+    private final Timestamp submittedTs = new Timestamp(System.currentTimeMillis());
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workbook = SyntheticWorkbookGenerator.inMemory(rows, formulas, dates);
+        sheet = workbook.getSheetAt(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    /**
+     * Original getCellValueAsString over columns B to I of every row.
+     */
+    @Benchmark
+    public void legacyGetCellValueAsString(Blackhole blackhole) {
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            for (int col = 1; col <= 8; col++) {
+                blackhole.consume(legacyGetCellValueAsString(row.getCell(col)));
+            }
+        }
+    }
+
+    /**
+     * Original isRowEmpty over every row.
+     */
+    @Benchmark
+    public void legacyIsRowEmpty(Blackhole blackhole) {
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            blackhole.consume(legacyIsRowEmpty(sheet.getRow(rowIndex)));
+        }
+    }
+
+    /**
+     * Original row loop: isRowEmpty, then a second conversion of the mapped cells.
+     */
+    @Benchmark
+    public void legacyRowToCaseMaster(Blackhole blackhole) {
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (legacyIsRowEmpty(row)) {
+                break;
+            }
+            String[] values = new String[9];
+            LocalDate[] dates = new LocalDate[9];
+            for (int col = 1; col <= 8; col++) {
+                values[col] = legacyGetCellValueAsString(row.getCell(col));
+            }
+            Cell dobCell = row.getCell(5);
+            if (dobCell != null && dobCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dobCell)) {
+                dates[5] = dobCell.getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            }
+            blackhole.consume(rowMapper.map(new SheetRow(rowIndex, submittedTs, values, dates)));
+        }
+    }
+
+    /**
+     * Current path: one shared context, each cell decoded once into the reusable buffer.
+     */
+    @Benchmark
+    public void decodeRows(Blackhole blackhole) {
+        RowDecoder decoder = new RowDecoder(new CellConversionContext(workbook), SheetRow.FIRST_COLUMN, SheetRow.LAST_COLUMN);
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            decoder.decode(sheet.getRow(rowIndex));
+            for (int col = SheetRow.FIRST_COLUMN; col <= SheetRow.LAST_COLUMN; col++) {
+                blackhole.consume(decoder.getString(col));
+            }
+        }
+    }
+
+    /**
+     * Current end-of-data check: decode plus the allocation-free emptiness test.
+     */
+    @Benchmark
+    public void rowDecoderIsEmpty(Blackhole blackhole) {
+        RowDecoder decoder = new RowDecoder(new CellConversionContext(workbook), SheetRow.FIRST_COLUMN, SheetRow.LAST_COLUMN);
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            decoder.decode(sheet.getRow(rowIndex));
+            blackhole.consume(decoder.isEmpty());
+        }
+    }
+
+    /**
+     * Current row loop: decode once, check for the end of data, map to CaseMaster.
+     */
+    @Benchmark
+    public void rowToCaseMaster(Blackhole blackhole) {
+        RowDecoder decoder = new RowDecoder(new CellConversionContext(workbook), SheetRow.FIRST_COLUMN, SheetRow.LAST_COLUMN);
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            decoder.decode(sheet.getRow(rowIndex));
+            if (decoder.isEmpty()) {
+                break;
+            }
+            blackhole.consume(rowMapper.map(decoder.toSheetRow(rowIndex, submittedTs)));
+        }
+    }
+
+    // Verbatim copies of the original ExcelService helpers, kept here as the regression baseline
+
+    private static String legacyGetCellValueAsString(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue();
+            case NUMERIC -> {
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    yield cell.getDateCellValue().toString();
+                } else {
+                    yield String.valueOf((long) cell.getNumericCellValue());
+                }
+            }
+            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
+            case FORMULA -> {
+                FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
+                CellValue cellValue = evaluator.evaluate(cell);
+                yield switch (cellValue.getCellType()) {
+                    case STRING -> cellValue.getStringValue();
+                    case NUMERIC -> String.valueOf(cellValue.getNumberValue());
+                    case BOOLEAN -> String.valueOf(cellValue.getBooleanValue());
+                    case ERROR -> "ERROR";
+                    default -> null;
+                };
+            }
+            case BLANK, ERROR -> null;
+            default -> null;
+        };
+    }
+
+    private static boolean legacyIsRowEmpty(Row row) {
+        if (row == null) {
+            return true;
+        }
+        for (int i = 1; i <= 8; i++) {
+            Cell cell = row.getCell(i);
+            if (cell != null && cell.getCellType() != CellType.BLANK) {
+                String cellValue = legacyGetCellValueAsString(cell);
+                if (cellValue != null && !cellValue.trim().isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.service.DelimitedFileReader;
+import com.ppi.utility.importer.service.ImportMetrics;
+import com.ppi.utility.importer.service.StreamingExcelReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full read of the same rows as .xlsx (streaming reader) and as .csv (DelimitedFileReader, memory-mapped
+ * and buffered). Each method returns the row count, so rows/sec is {@code rows} divided by the score.
+ * The CSV path is expected to be at least 10x faster than the streaming .xlsx path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class DelimitedReadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private File xlsxFile;
+    private File csvFile;
+    private final ImportMetrics importMetrics = new ImportMetrics(new SimpleMeterRegistry());
+    private final StreamingExcelReader streamingReader = new StreamingExcelReader(importMetrics);
+    private final DelimitedFileReader mappedReader = new DelimitedFileReader(importMetrics, true);
+    private final DelimitedFileReader bufferedReader = new DelimitedFileReader(importMetrics, false);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        xlsxFile = SyntheticWorkbookGenerator.xlsx(rows, false, false);
+        csvFile = SyntheticWorkbookGenerator.delimited(rows, false);
+    }
+
+    @Benchmark
+    public int streamingXlsx(Blackhole blackhole) throws IOException {
+        return streamingReader.read(xlsxFile, 0, blackhole::consume);
+    }
+
+    @Benchmark
+    public int csvMapped(Blackhole blackhole) throws IOException {
+        return mappedReader.read(csvFile, blackhole::consume);
+    }
+
+    @Benchmark
+    public int csvBuffered(Blackhole blackhole) throws IOException {
+        return bufferedReader.read(csvFile, blackhole::consume);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.MainApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the importer's Spring context against an embedded H2 database in Oracle mode,
+ * with CASE_MASTER_TBL, CASE_CUST_PRV_ADDRESS and their sequences created up front.
+ * CASE_MASTER_STG is a plain table here: H2 shares global temporary table contents between sessions,
+ * and the persistence benchmark writes from a single connection anyway.
+ * Used as the persistence stand-in for benchmarks, so no Oracle instance is needed.
+ */
+public final class H2ImporterContext implements AutoCloseable {
+
+    private static final String SCHEMA = """
+            CREATE SEQUENCE CASE_ID_SEQ START WITH 1 INCREMENT BY 1;
+            CREATE SEQUENCE PRV_ADDR_SEQ START WITH 1 INCREMENT BY 1;
+            CREATE TABLE CASE_MASTER_TBL (
+                CASE_ID VARCHAR2(20) NOT NULL PRIMARY KEY,
+                CHANNEL_ID VARCHAR2(3),
+                USER_ID VARCHAR2(50) NOT NULL,
+                SUBMITTED_TS TIMESTAMP(6),
+                CASE_TYPE VARCHAR2(20),
+                CASE_STATUS_ID NUMBER,
+                IS_CURRENT_UK_RESIDENT CHAR(1),
+                TITLE_CODE VARCHAR2(35),
+                FIRST_NAME VARCHAR2(35),
+                MIDDLE_NAME VARCHAR2(35),
+                LAST_NAME VARCHAR2(35),
+                DATE_OF_BIRTH DATE,
+                POST_CODE VARCHAR2(37),
+                THIRD_PARTY_REFERENCE_1 VARCHAR2(50),
+                THIRD_PARTY_REFERENCE_2 VARCHAR2(50)
+            );
+            CREATE TABLE CASE_MASTER_STG (
+                STG_ROW_NO NUMBER(10) NOT NULL,
+                CASE_ID VARCHAR2(20) NOT NULL,
+                CHANNEL_ID VARCHAR2(3),
+                USER_ID VARCHAR2(50) NOT NULL,
+                SUBMITTED_TS TIMESTAMP(6),
+                CASE_TYPE VARCHAR2(20),
+                CASE_STATUS_ID NUMBER,
+                IS_CURRENT_UK_RESIDENT CHAR(1),
+                TITLE_CODE VARCHAR2(35),
+                FIRST_NAME VARCHAR2(35),
+                MIDDLE_NAME VARCHAR2(35),
+                LAST_NAME VARCHAR2(35),
+                DATE_OF_BIRTH DATE,
+                POST_CODE VARCHAR2(37),
+                THIRD_PARTY_REFERENCE_1 VARCHAR2(50),
+                THIRD_PARTY_REFERENCE_2 VARCHAR2(50)
+            );
+            CREATE TABLE CASE_CUST_PRV_ADDRESS (
+                PRV_ADDR_SEQ_ID NUMBER(20) NOT NULL PRIMARY KEY,
+                UK_FLG CHAR(1),
+                EXRTRACT_IND CHAR(1),
+                ORACLE_LOAD_TIMESTAMP TIMESTAMP(6),
+                CASE_ID VARCHAR2(20)
+            )
+            """;
+
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * @param extraArgs Additional {@code --property=value} overrides, e.g. the chunk size under test.
+     */
+    public H2ImporterContext(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                // Command-line arguments take precedence over the packaged application.properties
+                "--spring.datasource.url=jdbc:h2:mem:importer-bench;MODE=Oracle;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.web-application-type=none"));
+        args.addAll(List.of(extraArgs));
+
+        context = SpringApplication.run(MainApplication.class, args.toArray(new String[0]));
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        for (String statement : SCHEMA.split(";")) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Empties the import tables between benchmark iterations.
+     */
+    public void truncate() {
+        getJdbcTemplate().execute("TRUNCATE TABLE CASE_CUST_PRV_ADDRESS");
+        getJdbcTemplate().execute("TRUNCATE TABLE CASE_MASTER_TBL");
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.service.ExcelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end ExcelService.processExcelFile (read, map, chunked insert) against embedded H2 in Oracle mode.
+ * H2 is much faster than a networked Oracle instance, so absolute numbers are optimistic; the benchmark
+ * is meant for tracking regressions in the importer's own overhead between changes.
+ * The {@code mode} parameter compares the JPA write path with the plain JDBC bulk loader and the staged MERGE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class PersistenceBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"1000", "5000"})
+    public int chunkSize;
+
+    @Param({"jpa", "jdbc", "merge"})
+    public String mode;
+
+    private H2ImporterContext context;
+    private ExcelService excelService;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = SyntheticWorkbookGenerator.xlsx(rows, false, true);
+        context = new H2ImporterContext(
+                "--importer.persistence.chunk-size=" + chunkSize,
+                "--importer.persistence.mode=" + mode,
+                "--importer.persistence.jdbc.batch-size=" + Math.min(chunkSize, 1000),
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + Math.min(chunkSize, 1000));
+        excelService = context.getBean(ExcelService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTables() {
+        context.truncate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String processExcelFile() throws Exception {
+        return excelService.processExcelFile(file);
+    }
+}
@@ -0,0 +1,160 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.service.CellConversionContext;
+import com.ppi.utility.importer.service.ImportMetrics;
+import com.ppi.utility.importer.service.RowDecoder;
+import com.ppi.utility.importer.service.SheetRow;
+import com.ppi.utility.importer.service.StreamingExcelReader;
+import com.ppi.utility.importer.service.StreamingXlsReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Peak-heap comparison of the streaming (SAX) reader against the XSSFWorkbook (DOM) reader on the same file.
+ * JMH's gc profiler reports allocation rates rather than peak occupancy, so this is a plain main:
+ * <pre>
+ *   java -Xmx8g -cp benchmarks/target/benchmarks.jar \
+ *        com.ppi.utility.importer.benchmarks.ReaderHeapComparison 200000
+ * </pre>
+ * Each reader is measured after a GC with the heap pools' peak counters reset, and reports its total time
+ * and its time to first row. For the cleanest numbers, run each reader in its own JVM by passing
+ * {@code streaming}, {@code dom} (workbook opened from a FileInputStream, as the DOM path opens .xlsx) or
+ * {@code dom-file} (opened read-only from the File, as the DOM path opens .xls) as the second argument.
+ * <p>
+ * Passing {@code xls}, {@code xls-streaming}, {@code xls-dom} or {@code xls-dom-file} compares the HSSF
+ * event reader against WorkbookFactory on a generated .xls instead; BIFF8 limits that file to 65,526 rows.
+ * <p>
+ * Last run (JDK 21, -Xmx3g, one CPU, medians of three JVMs per mode; 100,000 .xlsx rows, 60,000 .xls rows):
+ * <pre>
+ *   .xlsx  streaming  40 MB peak, first row  1.6 s, 9.7 s total
+ *          dom      1006 MB peak, first row 10.6 s, 16.5 s total
+ *          dom-file 1013 MB peak, first row 14.5 s, 22.0 s total
+ *   .xls   streaming  56 MB peak, first row  2.2 s,  4.6 s total
+ *          dom       365 MB peak, first row 10.2 s, 11.4 s total
+ *          dom-file  329 MB peak, first row  9.9 s, 11.3 s total
+ * </pre>
+ * Opening from the File only pays off for .xls; for .xlsx it kept the same peak and was slower in every run.
+ */
+public final class ReaderHeapComparison {
+
+    private ReaderHeapComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String only = args.length > 1 ? args[1] : "all";
+        if (only.startsWith("xls")) {
+            compareXls(Math.min(rows, 60_000), only.equals("xls") ? "all" : only.substring(4));
+            return;
+        }
+        File file = SyntheticWorkbookGenerator.xlsx(rows, false, true);
+        System.out.println("File: " + file + " (" + file.length() / 1024 + " KB, " + rows + " rows)");
+
+        if (only.equals("all") || only.equals("streaming")) {
+            measure("streaming", firstRow -> new StreamingExcelReader(new ImportMetrics(new SimpleMeterRegistry()))
+                    .read(file, 0, row -> firstRow.run()));
+        }
+        if (only.equals("all") || only.equals("dom")) {
+            measure("xssfWorkbook", firstRow -> {
+                try (FileInputStream fis = new FileInputStream(file);
+                     Workbook workbook = new XSSFWorkbook(fis)) {
+                    return readAll(workbook, firstRow);
+                }
+            });
+        }
+        if (only.equals("all") || only.equals("dom-file")) {
+            measure("workbookFile", firstRow -> {
+                try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                    return readAll(workbook, firstRow);
+                }
+            });
+        }
+    }
+
+    private static void compareXls(int rows, String only) throws Exception {
+        File file = SyntheticWorkbookGenerator.xls(rows, true);
+        System.out.println("File: " + file + " (" + file.length() / 1024 + " KB, " + rows + " rows)");
+
+        if (only.equals("all") || only.equals("streaming")) {
+            measure("hssfEvent", firstRow -> new StreamingXlsReader(new ImportMetrics(new SimpleMeterRegistry()))
+                    .read(file, 0, row -> firstRow.run()));
+        }
+        if (only.equals("all") || only.equals("dom")) {
+            measure("hssfWorkbook", firstRow -> {
+                try (FileInputStream fis = new FileInputStream(file);
+                     Workbook workbook = WorkbookFactory.create(fis)) {
+                    return readAll(workbook, firstRow);
+                }
+            });
+        }
+        if (only.equals("all") || only.equals("dom-file")) {
+            measure("hssfFile", firstRow -> {
+                try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                    return readAll(workbook, firstRow);
+                }
+            });
+        }
+    }
+
+    private static int readAll(Workbook workbook, Runnable firstRow) {
+        Sheet sheet = workbook.getSheetAt(0);
+        RowDecoder decoder = new RowDecoder(new CellConversionContext(workbook), SheetRow.FIRST_COLUMN, SheetRow.LAST_COLUMN);
+        int count = 0;
+        for (int rowIndex = 9; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            decoder.decode(sheet.getRow(rowIndex));
+            firstRow.run();
+            count++;
+        }
+        return count;
+    }
+
+    private static void measure(String name, ReadAction action) throws Exception {
+        System.gc();
+        long baseline = usedHeap();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        long start = System.nanoTime();
+        long[] firstRowAt = {0};
+        int count = action.read(() -> {
+            if (firstRowAt[0] == 0) {
+                firstRowAt[0] = System.nanoTime();
+            }
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long firstRowMs = firstRowAt[0] == 0 ? -1 : (firstRowAt[0] - start) / 1_000_000;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%-13s rows=%d time=%d ms firstRow=%d ms peakHeap=%d MB (baseline %d MB)%n",
+                name, count, elapsedMs, firstRowMs, peak / (1024 * 1024), baseline / (1024 * 1024));
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @FunctionalInterface
+    private interface ReadAction {
+        /**
+         * @param firstRow To be called for every row read; only the first call is timed.
+         */
+        int read(Runnable firstRow) throws Exception;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ppi.utility.importer.benchmarks;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Generates broker claim-list workbooks in the importer's layout:
+ * D6 holds the submitted timestamp, and data rows start at row 10 in columns B to I.
+ * <p>
+ * Files are written through SXSSF so that even 1M-row workbooks are generated in bounded memory.
+ * Generated files are cached in the temp directory by shape, so repeated benchmark runs reuse them.
+ * The same rows are also available as a .csv/.tsv export, for comparing DelimitedFileReader with the Excel readers.
+ */
+public final class SyntheticWorkbookGenerator {
+
+    private static final int FIRST_DATA_ROW = 9; // Row 10 (0-indexed)
+
+    private SyntheticWorkbookGenerator() {
+    }
+
+    /**
+     * Returns a generated .xlsx file with the given shape, creating it on first use.
+     *
+     * @param rows     Number of data rows.
+     * @param formulas When true, columns H and I hold formulas (string concatenation and arithmetic over the row).
+     * @param dates    When true, column F holds date-formatted DATE_OF_BIRTH cells; otherwise plain text.
+     */
+    public static File xlsx(int rows, boolean formulas, boolean dates) throws IOException {
+        String name = "importer-bench-" + rows + (formulas ? "-formulas" : "") + (dates ? "-dates" : "") + ".xlsx";
+        File file = new File(System.getProperty("java.io.tmpdir"), name);
+        if (file.isFile() && file.length() > 0) {
+            return file;
+        }
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+             FileOutputStream out = new FileOutputStream(file)) {
+            workbook.setCompressTempFiles(true);
+            populate(workbook, rows, formulas, dates);
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    /**
+     * Returns a generated legacy .xls (BIFF8) file with the given shape, creating it on first use.
+     * HSSF has no streaming writer, so the workbook is built in memory; BIFF8 caps a sheet at 65,536 rows.
+     *
+     * @param rows  Number of data rows, at most 65,526.
+     * @param dates When true, column F holds date-formatted DATE_OF_BIRTH cells; otherwise plain text.
+     */
+    public static File xls(int rows, boolean dates) throws IOException {
+        if (FIRST_DATA_ROW + rows > 65_536) {
+            throw new IllegalArgumentException(".xls sheets hold at most " + (65_536 - FIRST_DATA_ROW) + " data rows.");
+        }
+        String name = "importer-bench-" + rows + (dates ? "-dates" : "") + ".xls";
+        File file = new File(System.getProperty("java.io.tmpdir"), name);
+        if (file.isFile() && file.length() > 0) {
+            return file;
+        }
+        try (HSSFWorkbook workbook = new HSSFWorkbook();
+             FileOutputStream out = new FileOutputStream(file)) {
+            populate(workbook, rows, false, dates);
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    /**
+     * Returns a generated delimited file holding the same cells as {@code xlsx(rows, false, false)},
+     * one line per sheet row, creating it on first use.
+     *
+     * @param rows Number of data rows.
+     * @param tsv  When true, a tab-separated .tsv file; otherwise a comma-separated .csv file.
+     */
+    public static File delimited(int rows, boolean tsv) throws IOException {
+        String name = "importer-bench-" + rows + (tsv ? ".tsv" : ".csv");
+        File file = new File(System.getProperty("java.io.tmpdir"), name);
+        if (file.isFile() && file.length() > 0) {
+            return file;
+        }
+        char delimiter = tsv ? '\t' : ',';
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int rowIndex = 0; rowIndex < FIRST_DATA_ROW; rowIndex++) {
+                if (rowIndex == 5) {
+                    out.write(delimiter + "" + delimiter + "" + delimiter + "2024-01-31 09:30:00"); // D6: SUBMITTED_TS
+                }
+                out.write('\n');
+            }
+            LocalDate baseDob = LocalDate.of(1950, 1, 1);
+            for (int i = 0; i < rows; i++) {
+                out.write(delimiter);                                        // A
+                out.write("REF" + (1_000_000 + i));                          // B: THIRD_PARTY_REFERENCE_1
+                out.write(delimiter);
+                out.write(Long.toString(7_000_000_000L + i));                // C: THIRD_PARTY_REFERENCE_2
+                out.write(delimiter);
+                out.write("Surname" + (i % 5000));                           // D: LAST_NAME
+                out.write(delimiter);
+                out.write("Firstname" + (i % 700));                          // E: FIRST_NAME
+                out.write(delimiter);
+                out.write(baseDob.plusDays(i % 20_000).toString());          // F: DATE_OF_BIRTH
+                out.write(delimiter);
+                out.write("SW" + (i % 20 + 1) + " " + (i % 9 + 1) + "AA");   // G: POST_CODE
+                out.write(delimiter);
+                out.write("Note " + i);                                      // H
+                out.write(delimiter);
+                out.write(Integer.toString(i));                              // I
+                out.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Builds an in-memory workbook with the given shape, for benchmarks that work on POI cells directly.
+     */
+    public static XSSFWorkbook inMemory(int rows, boolean formulas, boolean dates) {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        populate(workbook, rows, formulas, dates);
+        return workbook;
+    }
+
+    private static void populate(Workbook workbook, int rows, boolean formulas, boolean dates) {
+        CreationHelper creationHelper = workbook.getCreationHelper();
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(creationHelper.createDataFormat().getFormat("dd/mm/yyyy"));
+        CellStyle timestampStyle = workbook.createCellStyle();
+        timestampStyle.setDataFormat(creationHelper.createDataFormat().getFormat("dd/mm/yyyy hh:mm:ss"));
+
+        Sheet sheet = workbook.createSheet("Claims");
+
+        // D6: SUBMITTED_TS
+        Cell submitted = sheet.createRow(5).createCell(3);
+        submitted.setCellValue(LocalDateTime.of(2024, 1, 31, 9, 30));
+        submitted.setCellStyle(timestampStyle);
+
+        LocalDate baseDob = LocalDate.of(1950, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            int rowIndex = FIRST_DATA_ROW + i;
+            int excelRow = rowIndex + 1;
+            Row row = sheet.createRow(rowIndex);
+
+            row.createCell(1).setCellValue("REF" + (1_000_000 + i));       // B: THIRD_PARTY_REFERENCE_1
+            row.createCell(2).setCellValue(7_000_000_000L + i);            // C: THIRD_PARTY_REFERENCE_2 (numeric)
+            row.createCell(3).setCellValue("Surname" + (i % 5000));        // D: LAST_NAME
+            row.createCell(4).setCellValue("Firstname" + (i % 700));       // E: FIRST_NAME
+
+            Cell dob = row.createCell(5);                                  // F: DATE_OF_BIRTH
+            LocalDate dobValue = baseDob.plusDays(i % 20_000);
+            if (dates) {
+                dob.setCellValue(Date.from(dobValue.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                dob.setCellStyle(dateStyle);
+            } else {
+                dob.setCellValue(dobValue.toString());
+            }
+
+            row.createCell(6).setCellValue("SW" + (i % 20 + 1) + " " + (i % 9 + 1) + "AA"); // G: POST_CODE
+
+            if (formulas) {
+                row.createCell(7).setCellFormula("CONCATENATE(D" + excelRow + ",\", \",E" + excelRow + ")"); // H
+                row.createCell(8).setCellFormula("C" + excelRow + "*2+LEN(B" + excelRow + ")");              // I
+            } else {
+                row.createCell(7).setCellValue("Note " + i);               // H
+                row.createCell(8).setCellValue(i);                         // I
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ppi.utility.importer.benchmarks;
+
+import com.ppi.utility.importer.service.ImportMetrics;
+import com.ppi.utility.importer.service.StreamingExcelReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of opening a generated .xlsx through each supported path: the XSSFWorkbook constructor and
+ * WorkbookFactory over a FileInputStream (the ExcelService / ExcelService2 DOM paths), WorkbookFactory
+ * read-only from the File (what those paths use for .xls), and a full pass of the streaming reader.
+ * Single-shot, since each open is expensive and dominated by I/O and inflation.
+ * <p>
+ * The 1M-row case needs a large heap for the DOM paths; run it with {@code -jvmArgsAppend -Xmx8g}
+ * or exclude it with {@code -p rows=10000,100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class WorkbookOpenBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean formulas;
+
+    private File file;
+    private final StreamingExcelReader streamingReader = new StreamingExcelReader(new ImportMetrics(new SimpleMeterRegistry()));
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticWorkbookGenerator.xlsx(rows, formulas, true);
+    }
+
+    @Benchmark
+    public int xssfWorkbook() throws IOException {
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook workbook = new XSSFWorkbook(fis)) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    @Benchmark
+    public int workbookFactory() throws IOException {
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook workbook = WorkbookFactory.create(fis)) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    /**
+     * Lets POI open the zip from the file (OPCPackage over ZipFile) instead of buffering the stream.
+     */
+    @Benchmark
+    public int workbookFactoryFile() throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    /**
+     * Opens and reads every data row, so this is an upper bound for the streaming path.
+     */
+    @Benchmark
+    public int streamingRead(Blackhole blackhole) throws IOException {
+        return streamingReader.read(file, 0, blackhole::consume);
+    }
+}
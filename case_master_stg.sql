@@ -0,0 +1,32 @@
+-- Staging table for importer.persistence.mode=merge (CaseMasterMergeLoader).
+-- A global temporary table: each session sees only its own rows, so parallel writer threads
+-- never see each other's chunks, and nothing is left behind after commit.
+CREATE GLOBAL TEMPORARY TABLE CASE_MASTER_STG (
+    STG_ROW_NO              NUMBER(10)    NOT NULL,
+    CASE_ID                 VARCHAR2(20)  NOT NULL,
+    CHANNEL_ID              VARCHAR2(3),
+    USER_ID                 VARCHAR2(50)  NOT NULL,
+    SUBMITTED_TS            TIMESTAMP(6),
+    CASE_TYPE               VARCHAR2(20),
+    CASE_STATUS_ID          NUMBER,
+    IS_CURRENT_UK_RESIDENT  CHAR(1),
+    TITLE_CODE              VARCHAR2(35),
+    FIRST_NAME              VARCHAR2(35),
+    MIDDLE_NAME             VARCHAR2(35),
+    LAST_NAME               VARCHAR2(35),
+    DATE_OF_BIRTH           DATE,
+    POST_CODE               VARCHAR2(37),
+    THIRD_PARTY_REFERENCE_1 VARCHAR2(50),
+    THIRD_PARTY_REFERENCE_2 VARCHAR2(50)
+) ON COMMIT DELETE ROWS;
+
+-- Lets the MERGE probe existing cases by key instead of scanning CASE_MASTER_TBL.
+-- The MERGE compares keys through COALESCE, so index the same expressions.
+-- Not UNIQUE, as existing data may already hold duplicates; CaseMasterMergeLoader instead serializes
+-- its MERGEs (LOCK TABLE ... IN SHARE ROW EXCLUSIVE MODE until commit), so parallel writers cannot
+-- both insert the same new key.
+CREATE INDEX CASE_MASTER_DEDUP_IDX ON CASE_MASTER_TBL (
+    COALESCE(THIRD_PARTY_REFERENCE_1, CHR(0)),
+    COALESCE(THIRD_PARTY_REFERENCE_2, CHR(0)),
+    COALESCE(DATE_OF_BIRTH, DATE '0001-01-01')
+);
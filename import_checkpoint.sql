@@ -0,0 +1,12 @@
+-- Checkpoints of importer.checkpoint.enabled=true imports (ImportJournal).
+-- Written in the same transaction as each chunk's rows, so a checkpoint is committed exactly when its rows are.
+CREATE TABLE IMPORT_CHECKPOINT (
+    FILE_HASH      CHAR(64)      NOT NULL,
+    SHEET_INDEX    NUMBER(5)     NOT NULL,
+    FILE_NAME      VARCHAR2(255) NOT NULL,
+    LAST_ROW_INDEX NUMBER(10)    NOT NULL,
+    ROWS_WRITTEN   NUMBER(10)    NOT NULL,
+    IS_COMPLETE    CHAR(1)       NOT NULL,
+    UPDATED_TS     TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT IMPORT_CHECKPOINT_PK PRIMARY KEY (FILE_HASH, SHEET_INDEX)
+);